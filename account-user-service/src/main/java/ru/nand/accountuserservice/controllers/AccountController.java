@@ -6,6 +6,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import lombok.extern.slf4j.Slf4j;
+import ru.nand.accountuserservice.entities.DTO.FollowsPageDTO;
 import ru.nand.accountuserservice.entities.DTO.UserDTO;
 import ru.nand.accountuserservice.entities.requests.AccountPatchRequest;
 import ru.nand.accountuserservice.services.AccountService;
@@ -112,9 +113,11 @@ public class AccountController {
 
     /// Получение списка подписчиков текущего пользователя
     @GetMapping("/followers")
-    public ResponseEntity<?> getFollowers(@AuthenticationPrincipal UserDetails userDetails){
+    public ResponseEntity<?> getFollowers(@AuthenticationPrincipal UserDetails userDetails,
+                                          @RequestParam(defaultValue = "0") int cursor,
+                                          @RequestParam(defaultValue = "50") int limit){
         try {
-            List<String> followers = accountService.getFollowers(userDetails.getUsername());
+            FollowsPageDTO followers = accountService.getFollowers(userDetails.getUsername(), cursor, limit);
             log.info("Получен список подписчиков пользователя {}", userDetails.getUsername());
             return ResponseEntity.status(200).body(followers);
         } catch (Exception e){
@@ -125,9 +128,11 @@ public class AccountController {
 
     /// Получение списка подписок текущего пользователя
     @GetMapping("/following")
-    public ResponseEntity<?> getFollowing(@AuthenticationPrincipal UserDetails userDetails){
+    public ResponseEntity<?> getFollowing(@AuthenticationPrincipal UserDetails userDetails,
+                                          @RequestParam(defaultValue = "0") int cursor,
+                                          @RequestParam(defaultValue = "50") int limit){
         try{
-            List<String> following = accountService.getFollowing(userDetails.getUsername());
+            FollowsPageDTO following = accountService.getFollowing(userDetails.getUsername(), cursor, limit);
             log.info("Получен список подписок пользователя {}", userDetails.getUsername());
             return ResponseEntity.status(200).body(following);
         } catch (Exception e){
@@ -0,0 +1,16 @@
+package ru.nand.accountuserservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowsPageDTO {
+    private List<String> usernames;
+
+    private Integer nextCursor; // Передается как cursor для следующей страницы, null - страниц больше нет
+}
@@ -15,6 +15,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import ru.nand.accountuserservice.entities.DTO.FollowsPageDTO;
 import ru.nand.accountuserservice.entities.DTO.UserDTO;
 import ru.nand.accountuserservice.entities.requests.AccountPatchRequest;
 import ru.nand.accountuserservice.utils.AccountUtil;
@@ -265,8 +266,8 @@ public class AccountService {
     }
 
     /// Получение списка username'ов подписчиков
-    public List<String> getFollowers(String username) throws RuntimeException {
-        String url = REGISTRY_SERVICE_URL + "/api/users/" + username + "/followers";
+    public FollowsPageDTO getFollowers(String username, int cursor, int limit) throws RuntimeException {
+        String url = REGISTRY_SERVICE_URL + "/api/users/" + username + "/followers?cursor=" + cursor + "&limit=" + limit;
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
@@ -275,14 +276,14 @@ public class AccountService {
 
         log.debug("Запрос к registry-service на получение списка подписчиков пользователя {}", username);
         try{
-            ResponseEntity<String[]> response = restTemplate.exchange(
+            ResponseEntity<FollowsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    String[].class
+                    FollowsPageDTO.class
             );
 
-            return Arrays.asList(response.getBody());
+            return response.getBody();
         } catch (Exception e){
             log.error("Ошибка получения подписчиков пользователя {}: {}", username, e.getMessage());
             throw new RuntimeException("Ошибка получения подписчиков: " + e.getMessage());
@@ -290,8 +291,8 @@ public class AccountService {
     }
 
     /// Получение username'ов подписок
-    public List<String> getFollowing(String username) throws RuntimeException {
-        String url = REGISTRY_SERVICE_URL + "/api/users/" + username + "/following";
+    public FollowsPageDTO getFollowing(String username, int cursor, int limit) throws RuntimeException {
+        String url = REGISTRY_SERVICE_URL + "/api/users/" + username + "/following?cursor=" + cursor + "&limit=" + limit;
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
@@ -300,14 +301,14 @@ public class AccountService {
 
         log.debug("Запрос к registry-service на получение списка подписок пользователя {}", username);
         try{
-            ResponseEntity<String[]> response = restTemplate.exchange(
+            ResponseEntity<FollowsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    String[].class
+                    FollowsPageDTO.class
             );
 
-            return Arrays.asList(response.getBody());
+            return response.getBody();
         } catch (Exception e){
             log.error("Ошибка получения подписок пользователя {}: {}", username, e.getMessage());
             throw new RuntimeException("Ошибка получения подписок: " + e.getMessage());
@@ -20,6 +20,7 @@ import java.util.Collections;
 import org.springframework.security.core.userdetails.User;
 import ru.nand.accountuserservice.services.AccountService;
 import ru.nand.accountuserservice.services.CheckSessionClient;
+import ru.nand.accountuserservice.services.RevokedTokensService;
 import ru.nand.accountuserservice.services.TokenRefreshGrpcClient;
 
 @Slf4j
@@ -29,6 +30,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final TokenRefreshGrpcClient tokenRefreshClient;
     private final CheckSessionClient sessionClient;
+    private final RevokedTokensService revokedTokensService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -37,8 +39,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             String token = jwtUtil.resolveToken(request);
 
             if (token != null) {
+                // Разбираем токен один раз на весь проход фильтра
+                ParsedToken parsedToken = jwtUtil.parseToken(token);
+
                 // Проверяем, истек ли токен
-                if (!jwtUtil.validateExpirationToken(token)) {
+                if (parsedToken.expired()) {
                     log.info("Токен истек, запрашиваем новый токен");
                     String refreshedToken = tokenRefreshClient.refreshToken(token);
 
@@ -46,6 +51,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                     if (refreshedToken != null) {
                         log.info("Токен был успешно обновлен");
                         token = refreshedToken;
+                        parsedToken = jwtUtil.parseToken(token);
                         // Устанавливаем новый токен в заголовок ответа
                         response.setHeader("Authorization", "Bearer " + token);
                     } else {
@@ -57,9 +63,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 }
 
                 // Валидация токена и добавление текущего пользователя в контекст безопасности
-                if (jwtUtil.validateToken(token) && sessionClient.isSessionActive(token)) {
-                    String username = jwtUtil.extractUsername(token);
-                    String role = jwtUtil.extractRole(token);
+                if (parsedToken.isValid() && isSessionActive(token)) {
+                    String username = parsedToken.username();
+                    String role = parsedToken.role();
 
                     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                         UserDetails userDetails = new User(
@@ -88,4 +94,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /// Сессия активна, если токен не отозван (проверка без сетевых запросов)
+    /// Пока список отзыва не загружен - спрашиваем registry-service
+    private boolean isSessionActive(String token) {
+        if (revokedTokensService.isReady()) {
+            return !revokedTokensService.isRevoked(token);
+        }
+        return sessionClient.isSessionActive(token);
+    }
 }
@@ -0,0 +1,26 @@
+package ru.nand.accountuserservice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/// SHA-256 токена в hex, совпадает с хэшами сессий в registry-service
+public final class TokenHashUtil {
+
+    private TokenHashUtil() {
+    }
+
+    public static String sha256Hex(String token) {
+        if (token == null) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.nand.adminservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedTokenDTO {
+    private String tokenHash;
+    private LocalDateTime accessTokenExpires;
+}
@@ -2,11 +2,14 @@ package ru.nand.adminservice.utils;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
@@ -30,13 +33,23 @@ public class JwtUtil {
     @Value("${service.jwt.secret}")
     private String serviceSecretKey;
 
-    // Создать ключ на основе массива байт
-    private Key getSigningKey(){
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
-    }
+    // Подписанный межсервисный токен переиспользуется всеми исходящими запросами до ротации
+    private volatile CachedInterServiceJwt cachedInterServiceJwt;
+
+    private record CachedInterServiceJwt(String token, long issuedAt) {}
+
+    // Ключи и парсер неизменяемы и потокобезопасны, поэтому собираются один раз при старте
+    private Key signingKey;
+    private Key interServiceSigningKey;
+    private JwtParser jwtParser;
 
-    private Key getInterServiceSigningKey(){
-        return Keys.hmacShaKeyFor(serviceSecretKey.getBytes());
+    @PostConstruct
+    private void init(){
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        interServiceSigningKey = Keys.hmacShaKeyFor(serviceSecretKey.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     // Извлечь имя
@@ -61,24 +74,30 @@ public class JwtUtil {
     // Получить все данные из токена
     private Claims extractAllClaims(String token) {
         try{
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (Exception e){
             log.warn("Не удалось извлечь данные из токена: {}", e.getMessage());
             return null;
         }
     }
 
+    /// Однократный разбор токена для всего прохода фильтра
+    public ParsedToken parseToken(String token) {
+        try{
+            return new ParsedToken(jwtParser.parseClaimsJws(token).getBody(), false);
+        } catch (ExpiredJwtException e){
+            log.info("Токен истек: {}", e.getMessage());
+            return new ParsedToken(e.getClaims(), true);
+        } catch (Exception e){
+            log.error("Ошибка валидации токена: {}", e.getMessage());
+            return new ParsedToken(null, false);
+        }
+    }
+
     /// Валидация истечения токена
     public boolean validateExpirationToken(String token) {
         try{
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            jwtParser.parseClaimsJws(token);
 
             return true;
         } catch (ExpiredJwtException e){
@@ -90,10 +109,7 @@ public class JwtUtil {
     /// Валидация токена
     public boolean validateToken(String token) {
         try{
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            jwtParser.parseClaimsJws(token);
 
             return true;
         } catch (Exception e){
@@ -113,20 +129,50 @@ public class JwtUtil {
 
     /// Генерация межсервисного JWT
     public String generateInterServiceJwt(){
+        CachedInterServiceJwt cached = cachedInterServiceJwt;
+
+        // Фоновое обновление не успело (или токен еще не выпускался) - подписываем синхронно
+        if(cached == null || System.currentTimeMillis() >= cached.issuedAt() + expiration * 9 / 10){
+            cached = signInterServiceJwt(cached);
+        }
+
+        return cached.token();
+    }
+
+    /// Заблаговременная ротация межсервисного токена, чтобы исходящие запросы не ждали подписи
+    @Scheduled(fixedDelay = 10 * 1000)
+    public void rotateInterServiceJwt(){
+        CachedInterServiceJwt cached = cachedInterServiceJwt;
+
+        if(cached == null || System.currentTimeMillis() >= cached.issuedAt() + expiration * 3 / 4){
+            signInterServiceJwt(cached);
+        }
+    }
+
+    private synchronized CachedInterServiceJwt signInterServiceJwt(CachedInterServiceJwt expected){
+        // Токен уже обновлен другим потоком
+        if(cachedInterServiceJwt != expected){
+            return cachedInterServiceJwt;
+        }
+
         Map<String, Object> claims = new HashMap<>();
         claims.put("service_role", "ROLE_SERVICE");
 
-        return createInterServiceToken(claims);
+        long issuedAt = System.currentTimeMillis();
+        cachedInterServiceJwt = new CachedInterServiceJwt(createInterServiceToken(claims, issuedAt), issuedAt);
+        log.debug("Межсервисный токен перевыпущен");
+
+        return cachedInterServiceJwt;
     }
 
     /// Создание межсервисного JWT
-    private String createInterServiceToken(Map<String, Object> claims) {
+    private String createInterServiceToken(Map<String, Object> claims, long issuedAt) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(serviceName)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getInterServiceSigningKey())
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(issuedAt + expiration))
+                .signWith(interServiceSigningKey)
                 .compact();
     }
 
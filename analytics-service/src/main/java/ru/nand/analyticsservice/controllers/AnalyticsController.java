@@ -8,6 +8,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.nand.analyticsservice.entities.DTO.CreatedAccountsDTO;
 import ru.nand.analyticsservice.entities.DTO.CreatedPostsDTO;
@@ -57,10 +58,10 @@ public class AnalyticsController {
 
     /// Получение N аккаунтов с наибольшим количеством подписчиков (количество упорядочено от большего к меньшему)
     @GetMapping("/popular-accounts/{accountsCount}")
-    public ResponseEntity<CreatedAccountsDTO> getPopularAccounts(@PathVariable int accountsCount){
+    public ResponseEntity<CreatedAccountsDTO> getPopularAccounts(@PathVariable int accountsCount, @RequestParam(defaultValue = "0") int page){
         try{
-            log.info("Запрос менеджера на получение списка популярных аккаунтов");
-            return ResponseEntity.status(200).body(analyticsService.getPopularAccounts(accountsCount));
+            log.info("Запрос менеджера на получение списка популярных аккаунтов, страница {}", page);
+            return ResponseEntity.status(200).body(analyticsService.getPopularAccounts(accountsCount, page));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
@@ -57,8 +57,8 @@ public class AnalyticsService {
     }
 
     /// Получение N аккаунтов с наибольшим количеством подписчиков (количество упорядочено от большего к меньшему)
-    public CreatedAccountsDTO getPopularAccounts(int accountsCount){
-        String url = REGISTRY_SERVICE_URL + "/api/users/popular-accounts/" + accountsCount;
+    public CreatedAccountsDTO getPopularAccounts(int accountsCount, int page){
+        String url = REGISTRY_SERVICE_URL + "/api/users/popular-accounts/" + accountsCount + "?page=" + page;
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
 
@@ -0,0 +1,149 @@
+package ru.nand.analyticsservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import ru.nand.analyticsservice.entities.DTO.RevokedTokenDTO;
+import ru.nand.analyticsservice.entities.DTO.SessionEventDTO;
+import ru.nand.analyticsservice.utils.JwtUtil;
+import ru.nand.analyticsservice.utils.TokenHashUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Локальный список отозванных access токенов, наполняется событиями сессий из registry-service
+@Slf4j
+@Service
+public class RevokedTokensService implements ConsumerSeekAware {
+    private final JwtUtil jwtUtil;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+
+    /// Хэш access токена -> момент истечения токена (после него запись не нужна, токен отсечется по exp)
+    private final Map<String, LocalDateTime> revokedTokens = new ConcurrentHashMap<>();
+
+    /// Пока снимок не загружен, активность сессии проверяется запросом в registry-service
+    private volatile boolean ready = false;
+
+    /// Партиции топика событий назначены, события после снимка будут прочитаны
+    private volatile boolean subscribed = false;
+
+    @Value("${interservice.header.name}")
+    private String HEADER_NAME;
+
+    @Value("${registry.service.url}")
+    private String REGISTRY_SERVICE_URL;
+
+    @Value("${sessions.events.replay-ms:60000}")
+    private long replayMs;
+
+    @Autowired
+    public RevokedTokensService(JwtUtil jwtUtil, RestTemplate restTemplate, ObjectMapper objectMapper) {
+        this.jwtUtil = jwtUtil;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /// Отозван ли access токен
+    public boolean isRevoked(String accessToken) {
+        return revokedTokens.containsKey(TokenHashUtil.sha256Hex(accessToken));
+    }
+
+    /// У каждого экземпляра своя группа, поэтому событие получают все экземпляры сервиса
+    @KafkaListener(topics = "session-events-topic", groupId = "${sessions.events.group-id}", containerFactory = "sessionEventsListenerContainerFactory")
+    public void handleSessionEvent(String message) {
+        try {
+            SessionEventDTO sessionEventDTO = objectMapper.readValue(message, SessionEventDTO.class);
+
+            // ACTIVE - новая или обновленная сессия, отзывать нечего
+            if ("ACTIVE".equals(sessionEventDTO.getStatus())) {
+                return;
+            }
+
+            revoke(sessionEventDTO.getTokenHash(), sessionEventDTO.getAccessTokenExpires());
+            log.debug("Токен пользователя {} отозван, статус сессии: {}", sessionEventDTO.getUserId(), sessionEventDTO.getStatus());
+        } catch (JsonProcessingException e) {
+            log.warn("Ошибка при десериализации события сессии: {}", e.getMessage());
+        }
+    }
+
+    /// Снимок загружается после назначения партиций, а чтение начинается с момента до запроса снимка
+    /// (с запасом на расхождение часов с registry-service): отзыв между снимком и началом чтения не теряется.
+    /// Смещения группы не фиксируются, поэтому то же выполняется и при повторном назначении после ребалансировки.
+    /// Повторно прочитанные события лишь еще раз отмечают уже отозванные токены
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        long from = System.currentTimeMillis() - replayMs;
+        subscribed = true;
+        loadSnapshot();
+        callback.seekToTimestamp(assignments.keySet(), from);
+    }
+
+    /// Загрузка снимка отозванных токенов
+    public void loadSnapshot() {
+        String url = REGISTRY_SERVICE_URL + "/api/session/revoked";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
+
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+
+        try {
+            ResponseEntity<List<RevokedTokenDTO>> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    requestEntity,
+                    new ParameterizedTypeReference<>() {}
+            );
+
+            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                log.warn("Неуспешный ответ от registry-service при получении отозванных токенов: {}", response.getStatusCode());
+                return;
+            }
+
+            response.getBody().forEach(revokedToken -> revoke(revokedToken.getTokenHash(), revokedToken.getAccessTokenExpires()));
+            ready = true;
+            log.info("Загружен снимок отозванных токенов: {}", response.getBody().size());
+        } catch (Exception e) {
+            log.warn("Ошибка при загрузке снимка отозванных токенов: {}", e.getMessage());
+        }
+    }
+
+    /// Повторная загрузка снимка, если при назначении партиций она не удалась, и очистка истекших записей.
+    /// Без подписки на события снимок не загружается: он бы устарел, а проверка через registry-service осталась бы отключенной
+    @Scheduled(fixedDelay = 60 * 1000)
+    public void maintainRevokedTokens() {
+        if (!ready && subscribed) {
+            loadSnapshot();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokens.values().removeIf(expires -> expires.isBefore(now));
+    }
+
+    private void revoke(String tokenHash, LocalDateTime accessTokenExpires) {
+        if (tokenHash == null) {
+            return;
+        }
+        revokedTokens.put(tokenHash, accessTokenExpires != null ? accessTokenExpires : LocalDateTime.now().plusDays(1));
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import ru.nand.analyticsservice.services.CheckSessionClient;
+import ru.nand.analyticsservice.services.RevokedTokensService;
 import ru.nand.analyticsservice.services.TokenRefreshGrpcClient;
 
 import java.io.IOException;
@@ -26,6 +27,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final TokenRefreshGrpcClient tokenRefreshGrpcClient;
     private final CheckSessionClient sessionClient;
+    private final RevokedTokensService revokedTokensService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -33,8 +35,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             String token = jwtUtil.resolveToken(request);
 
             if(token != null){
+                // Разбираем токен один раз на весь проход фильтра
+                ParsedToken parsedToken = jwtUtil.parseToken(token);
+
                 // Проверяем, истек ли токен
-                if (!jwtUtil.validateExpirationToken(token)) {
+                if (parsedToken.expired()) {
                     log.info("Токен истек, запрашиваем новый токен");
                     String refreshedToken = tokenRefreshGrpcClient.refreshToken(token);
 
@@ -42,6 +47,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                     if (refreshedToken != null) {
                         log.info("Токен был успешно обновлен");
                         token = refreshedToken;
+                        parsedToken = jwtUtil.parseToken(token);
                         // Устанавливаем новый токен в заголовок ответа
                         response.setHeader("Authorization", "Bearer " + token);
                     } else {
@@ -52,9 +58,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                     }
                 }
                 // Валидация токена и добавление текущего пользователя в КБ
-                if (jwtUtil.validateToken(token) && sessionClient.isSessionActive(token)) {
-                    String username = jwtUtil.extractUsername(token);
-                    String role = jwtUtil.extractRole(token);
+                if (parsedToken.isValid() && isSessionActive(token)) {
+                    String username = parsedToken.username();
+                    String role = parsedToken.role();
 
                     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                         UserDetails userDetails = new User(
@@ -79,4 +85,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /// Сессия активна, если токен не отозван (проверка без сетевых запросов)
+    /// Пока список отзыва не загружен - спрашиваем registry-service
+    private boolean isSessionActive(String token) {
+        if (revokedTokensService.isReady()) {
+            return !revokedTokensService.isRevoked(token);
+        }
+        return sessionClient.isSessionActive(token);
+    }
 }
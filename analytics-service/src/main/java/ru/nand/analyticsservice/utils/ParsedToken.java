@@ -0,0 +1,20 @@
+package ru.nand.analyticsservice.utils;
+
+import io.jsonwebtoken.Claims;
+
+/// Результат однократного разбора токена: claims (в т.ч. истекшего токена) и признак истечения
+public record ParsedToken(Claims claims, boolean expired) {
+
+    /// Подпись верна и токен не истек
+    public boolean isValid() {
+        return claims != null && !expired;
+    }
+
+    public String username() {
+        return claims.getSubject();
+    }
+
+    public String role() {
+        return claims.get("role", String.class);
+    }
+}
@@ -2,8 +2,10 @@ package ru.nand.authservice.utils;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
@@ -24,26 +26,65 @@ public class JwtUtil {
     @Value("${service.jwt.secret}")
     private String serviceSecretKey;
 
-    private Key getInterServiceSigningKey(){
-        return Keys.hmacShaKeyFor(serviceSecretKey.getBytes());
+    // Подписанный межсервисный токен переиспользуется всеми исходящими запросами до ротации
+    private volatile CachedInterServiceJwt cachedInterServiceJwt;
+
+    private record CachedInterServiceJwt(String token, long issuedAt) {}
+
+    // Ключ неизменяем, поэтому собирается один раз при старте
+    private Key interServiceSigningKey;
+
+    @PostConstruct
+    private void init(){
+        interServiceSigningKey = Keys.hmacShaKeyFor(serviceSecretKey.getBytes());
     }
 
     // Генерация межсервисного JWT
     public String generateInterServiceJwt(){
+        CachedInterServiceJwt cached = cachedInterServiceJwt;
+
+        // Фоновое обновление не успело (или токен еще не выпускался) - подписываем синхронно
+        if(cached == null || System.currentTimeMillis() >= cached.issuedAt() + expiration * 9 / 10){
+            cached = signInterServiceJwt(cached);
+        }
+
+        return cached.token();
+    }
+
+    /// Заблаговременная ротация межсервисного токена, чтобы исходящие запросы не ждали подписи
+    @Scheduled(fixedDelay = 10 * 1000)
+    public void rotateInterServiceJwt(){
+        CachedInterServiceJwt cached = cachedInterServiceJwt;
+
+        if(cached == null || System.currentTimeMillis() >= cached.issuedAt() + expiration * 3 / 4){
+            signInterServiceJwt(cached);
+        }
+    }
+
+    private synchronized CachedInterServiceJwt signInterServiceJwt(CachedInterServiceJwt expected){
+        // Токен уже обновлен другим потоком
+        if(cachedInterServiceJwt != expected){
+            return cachedInterServiceJwt;
+        }
+
         Map<String, Object> claims = new HashMap<>();
         claims.put("service_role", "ROLE_SERVICE");
 
-        return createInterServiceToken(claims);
+        long issuedAt = System.currentTimeMillis();
+        cachedInterServiceJwt = new CachedInterServiceJwt(createInterServiceToken(claims, issuedAt), issuedAt);
+        log.debug("Межсервисный токен перевыпущен");
+
+        return cachedInterServiceJwt;
     }
 
     // Создание межсервисного JWT
-    private String createInterServiceToken(Map<String, Object> claims) {
+    private String createInterServiceToken(Map<String, Object> claims, long issuedAt) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(serviceName)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getInterServiceSigningKey())
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(issuedAt + expiration))
+                .signWith(interServiceSigningKey)
                 .compact();
     }
 
@@ -1,13 +1,8 @@
 package ru.nand.groupchatsservice.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import ru.nand.groupchatsservice.entities.DTO.GroupChatDTO;
 import ru.nand.groupchatsservice.entities.DTO.GroupMessageDTO;
 import ru.nand.groupchatsservice.entities.GroupChat;
@@ -23,10 +18,13 @@ import ru.nand.groupchatsservice.repositories.GroupMessageRepository;
 import ru.nand.groupchatsservice.repositories.UserGroupChatRepository;
 import ru.nand.groupchatsservice.utils.GroupChatsUtil;
 import ru.nand.groupchatsservice.utils.JwtUtil;
+import ru.nand.registryservice.grpc.UserLookupProto;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -36,19 +34,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class GroupChatsService {
     private final JwtUtil jwtUtil;
-    private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate;
     private final GroupChatsUtil groupChatsUtil;
     private final GroupChatRepository groupChatRepository;
     private final GroupChatUserRepository groupChatUserRepository;
     private final UserGroupChatRepository userGroupChatRepository;
     private final GroupMessageRepository groupMessageRepository;
-
-    @Value("${registry.service.url}")
-    private String REGISTRY_SERVICE_URL;
-
-    @Value("${interservice.header.name}")
-    private String HEADER_NAME;
+    private final UserLookupGrpcClient userLookupGrpcClient;
 
     /// Создание группового чата
     public String createGroup(String authBearer, String groupOwnerUsername, CreateGroupRequest createGroupRequest) {
@@ -101,48 +92,23 @@ public class GroupChatsService {
         }
     }
 
-    /// Проверка на существование пользователей и возврат их почт если пользователи существуют
+    /// Проверка на существование пользователей одним запросом в registry-service и возврат их почт если пользователи существуют
     private Set<String> usersExists(Set<Integer> usersIds) {
-        String requestMessage;
-        try {
-            requestMessage = objectMapper.writeValueAsString(usersIds);
-        } catch (Exception e) {
-            log.warn("Ошибка при сериализации данных сета пользователей: {}", e.getMessage());
-            throw new RuntimeException("Ошибка сериализации данных");
-        }
-        log.debug("JSON для передачи в registry-service: {}", requestMessage);
-
-        String url = REGISTRY_SERVICE_URL + "/api/users/find-users";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<String> requestEntity = new HttpEntity<>(requestMessage, headers);
-        log.debug("Отправка запроса в registry-service на : {}", requestMessage);
+        log.debug("Отправка запроса в registry-service на проверку пользователей: {}", usersIds);
 
         try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    requestEntity,
-                    String.class
-            );
+            Map<Integer, UserLookupProto.ResolvedUser> users = userLookupGrpcClient.resolveUsers(usersIds);
 
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.warn("Неуспешный ответ от registry-service при проверке пользователей с id {} на существование: {}", usersIds, response.getStatusCode());
-                throw new RuntimeException("Неуспешный ответ от registry-service при проверке пользователей на существование");
+            Set<Integer> missingIds = new HashSet<>(usersIds);
+            missingIds.removeAll(users.keySet());
+            if (!missingIds.isEmpty()) {
+                log.warn("Пользователи с id {} не найдены", missingIds);
+                throw new RuntimeException("Пользователи " + missingIds + " не найдены");
             }
 
-            Set<String> usersEmails;
-            try {
-                usersEmails = objectMapper.readValue(response.getBody(), new TypeReference<Set<String>>() {});
-            } catch (Exception e) {
-                log.warn("Ошибка при десериализации данных ответа: {}", e.getMessage());
-                throw new RuntimeException("Ошибка при десериализации данных ответа");
-            }
-
-            return usersEmails;
+            return users.values().stream()
+                    .map(UserLookupProto.ResolvedUser::getEmail)
+                    .collect(Collectors.toSet());
         } catch (Exception e) {
             log.warn("Ошибка при проверке пользователей на существование: {}", e.getMessage());
             throw new RuntimeException("Ошибка при проверке пользователей " + usersIds + " на существование: " + e.getMessage());
@@ -0,0 +1,60 @@
+package ru.nand.groupchatsservice.services;
+
+import io.grpc.Metadata;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.MetadataUtils;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.nand.registryservice.grpc.UserLookupProto;
+import ru.nand.registryservice.grpc.UserLookupServiceGrpc;
+import ru.nand.groupchatsservice.utils.JwtUtil;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/// Пакетное получение пользователей из registry-service одним gRPC запросом
+@Slf4j
+@Service
+public class UserLookupGrpcClient {
+
+    @GrpcClient("userLookupRegistryService")
+    private UserLookupServiceGrpc.UserLookupServiceBlockingStub userLookupServiceBlockingStub;
+
+    private final JwtUtil jwtUtil;
+
+    /// Межсервисный токен передается в метаданных под именем HTTP заголовка
+    private final Metadata.Key<String> headerKey;
+
+    @Autowired
+    public UserLookupGrpcClient(JwtUtil jwtUtil, @Value("${interservice.header.name}") String headerName) {
+        this.jwtUtil = jwtUtil;
+        this.headerKey = Metadata.Key.of(headerName.toLowerCase(Locale.ROOT), Metadata.ASCII_STRING_MARSHALLER);
+    }
+
+    /// Возвращает найденных пользователей по id (отсутствующих пользователей в результате нет)
+    public Map<Integer, UserLookupProto.ResolvedUser> resolveUsers(Collection<Integer> usersIds) throws RuntimeException {
+        try {
+            UserLookupProto.ResolveUsersRequest request = UserLookupProto.ResolveUsersRequest.newBuilder()
+                    .addAllIds(usersIds)
+                    .build();
+
+            Metadata headers = new Metadata();
+            headers.put(headerKey, "Bearer " + jwtUtil.generateInterServiceJwt());
+
+            UserLookupProto.ResolveUsersResponse response = userLookupServiceBlockingStub
+                    .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                    .resolveUsers(request);
+            return response.getUsersList().stream()
+                    .collect(Collectors.toMap(UserLookupProto.ResolvedUser::getId, Function.identity()));
+        } catch (StatusRuntimeException e) {
+            log.error("Ошибка при получении пользователей по gRPC: {}", e.getStatus());
+            throw new RuntimeException("Ошибка при получении пользователей: " + e.getStatus());
+        }
+    }
+}
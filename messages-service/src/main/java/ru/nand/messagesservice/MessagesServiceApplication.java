@@ -3,8 +3,10 @@ package ru.nand.messagesservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.cassandra.repository.config.EnableCassandraRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @EnableCassandraRepositories(basePackages = "ru.nand.messagesservice.repositories")
 public class MessagesServiceApplication {
 
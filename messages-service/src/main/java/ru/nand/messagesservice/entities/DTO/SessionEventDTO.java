@@ -0,0 +1,18 @@
+package ru.nand.messagesservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionEventDTO {
+    private String tokenHash; // SHA-256 access токена сессии
+    private int userId;
+    private String status; // null - токен заменен новым и больше не действителен
+    private LocalDateTime accessTokenExpires;
+    private String instanceId;
+}
@@ -2,13 +2,7 @@ package ru.nand.messagesservice.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import ru.nand.messagesservice.entities.*;
 import ru.nand.messagesservice.entities.DTO.ChatDTO;
 import ru.nand.messagesservice.entities.DTO.MessageDTO;
@@ -16,11 +10,14 @@ import ru.nand.messagesservice.repositories.ChatRepository;
 import ru.nand.messagesservice.repositories.ChatUserRepository;
 import ru.nand.messagesservice.repositories.MessageRepository;
 import ru.nand.messagesservice.repositories.UserChatRepository;
-import ru.nand.messagesservice.utils.JwtUtil;
 import ru.nand.messagesservice.utils.MessagesUtil;
+import ru.nand.registryservice.grpc.UserLookupProto;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -34,21 +31,19 @@ public class ChatsService {
     private final MessageRepository messageRepository;
     private final UserChatRepository userChatRepository;
     private final ChatUserRepository chatUserRepository;
-    private final RestTemplate restTemplate;
-    private final JwtUtil jwtUtil;
     private final MessagesUtil messagesUtil;
-
-    @Value("${registry.service.url}")
-    private String REGISTRY_SERVICE_URL;
-
-    @Value("${interservice.header.name}")
-    private String HEADER_NAME;
+    private final UserLookupGrpcClient userLookupGrpcClient;
 
     /// Создание чата
     public ChatDTO createChat(int userId1, int userId2) {
         // Проверяем, существуют ли пользователи
-        String user1Email = userExists(userId1);
-        String user2Email = userExists(userId2);
+        return createChat(userId1, userId2, usersExist(userId1, userId2));
+    }
+
+    /// Создание чата для уже проверенных пользователей (usersEmails - почты по id)
+    private ChatDTO createChat(int userId1, int userId2, Map<Integer, String> usersEmails) {
+        String user1Email = usersEmails.get(userId1);
+        String user2Email = usersEmails.get(userId2);
 
         // Проверяем, существует ли уже чат между этими пользователями
         UUID existingChatId = findExistingChat(userId1, userId2);
@@ -98,8 +93,11 @@ public class ChatsService {
 
     /// Отправка сообщения
     public void sendMessage(int senderId, int targetUserId, MessageDTO messageDTO) {
+        // Проверяем пользователей один раз: почта получателя нужна ниже для уведомления
+        Map<Integer, String> usersEmails = usersExist(senderId, targetUserId);
+
         // Находим или создаем чат
-        ChatDTO chatDTO = createChat(senderId, targetUserId);
+        ChatDTO chatDTO = createChat(senderId, targetUserId, usersEmails);
 
         // Создаем сообщение
         MessageKey messageKey = MessageKey.builder()
@@ -117,8 +115,8 @@ public class ChatsService {
         log.debug("Сообщение отправлено в чат {}", chatDTO.getId());
         messageRepository.save(message);
 
-        // Уведомление получателю сообщения (для получения почты получателя используем метод userExists() как костыль)
-        messagesUtil.sendNotification(userExists(targetUserId), "Новое сообщение от пользователя " + senderId);
+        // Уведомление получателю сообщения
+        messagesUtil.sendNotification(usersEmails.get(targetUserId), "Новое сообщение от пользователя " + senderId);
     }
 
     /// Получение сообщений по ID чата
@@ -173,33 +171,24 @@ public class ChatsService {
     }
 
 
-    /// Проверка на существование пользователя с возвратом его почты
-    private String userExists(int userId) {
-        String url = REGISTRY_SERVICE_URL + "/api/users/" + userId + "/exists";
+    /// Проверка на существование пользователей одним запросом в registry-service с возвратом их почт по id
+    private Map<Integer, String> usersExist(int... usersIds) {
+        Set<Integer> ids = Arrays.stream(usersIds).boxed().collect(Collectors.toSet());
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
+        log.info("Отправка запроса на существование id: {}", ids);
+        Map<Integer, UserLookupProto.ResolvedUser> users = userLookupGrpcClient.resolveUsers(ids);
 
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-
-        try {
-            log.info("Отправка запроса на существование id: {}", userId);
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    requestEntity,
-                    String.class
-            );
-
-            if (!response.getStatusCode().is2xxSuccessful()){
-                throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
+        Map<Integer, String> usersEmails = new HashMap<>();
+        for (Integer userId : ids) {
+            UserLookupProto.ResolvedUser user = users.get(userId);
+            if (user == null) {
+                log.error("Пользователь с ID {} не найден", userId);
+                throw new RuntimeException("Ошибка при проверке существования пользователя с id " + userId + ": Пользователь не найден");
             }
-
-            log.debug("Пользователь с id {} существует, получен email: {}", userId, response.getBody());
-            return response.getBody();
-        } catch (Exception e) {
-            log.error("Ошибка при проверке существования пользователя с ID {}: {}", userId, e.getMessage());
-            throw new RuntimeException("Ошибка при проверке существования пользователя с id " + userId + ": " + e.getMessage());
+            usersEmails.put(userId, user.getEmail());
         }
+
+        log.debug("Пользователи с id {} существуют", ids);
+        return usersEmails;
     }
-}
\ No newline at end of file
+}
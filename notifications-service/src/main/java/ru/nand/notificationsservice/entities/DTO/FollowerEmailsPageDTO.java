@@ -0,0 +1,16 @@
+package ru.nand.notificationsservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowerEmailsPageDTO {
+    private List<String> emails;
+
+    private Integer nextCursor; // Курсор следующей страницы, null - страниц больше нет
+}
@@ -0,0 +1,20 @@
+package ru.nand.notificationsservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/// Событие о новом посте из registry-service (post-created-topic).
+/// cursor задан у продолжения прерванной рассылки (см. PostFanOutService), в событиях registry-service его нет
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostCreatedEventDTO {
+    private int authorId;
+
+    private String authorUsername;
+
+    private int postId;
+
+    private Integer cursor;
+}
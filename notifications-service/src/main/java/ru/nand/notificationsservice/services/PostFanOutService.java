@@ -0,0 +1,164 @@
+package ru.nand.notificationsservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import ru.nand.notificationsservice.entities.DTO.FollowerEmailsPageDTO;
+import ru.nand.notificationsservice.entities.DTO.NotificationDTO;
+import ru.nand.notificationsservice.entities.DTO.PostCreatedEventDTO;
+import ru.nand.notificationsservice.utils.JwtUtil;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/// Рассылка уведомлений о новом посте подписчикам автора.
+/// Подписчики читаются из registry-service страницами, уведомления уходят в user-notifications-topic
+/// (их обрабатывает KafkaNotificationsListener). Следующая страница запрашивается только после подтверждения
+/// отправки предыдущей, а темп рассылки ограничен max-per-second.
+/// Если не отправлено ни одной страницы, ошибка пробрасывается и событие повторяет обработчик ошибок контейнера.
+/// Если рассылка прервалась на середине, в post-created-topic публикуется продолжение с курсором страницы,
+/// на которой произошла ошибка: повторно отправляется не больше одной страницы
+@Slf4j
+@Service
+public class PostFanOutService {
+    private final JwtUtil jwtUtil;
+    private final RestTemplate restTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${interservice.header.name}")
+    private String HEADER_NAME;
+
+    @Value("${registry.service.url}")
+    private String REGISTRY_SERVICE_URL;
+
+    @Value("${notifications.fanout.page-size:500}")
+    private int pageSize;
+
+    @Value("${notifications.fanout.max-per-second:2000}")
+    private int maxPerSecond;
+
+    @Value("${notifications.fanout.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Autowired
+    public PostFanOutService(JwtUtil jwtUtil, RestTemplate restTemplate, KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+        this.jwtUtil = jwtUtil;
+        this.restTemplate = restTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = "post-created-topic", groupId = "notifications-fanout-group", containerFactory = "fanOutListenerContainerFactory")
+    public void handlePostCreated(String message) throws JsonProcessingException {
+        PostCreatedEventDTO event = objectMapper.readValue(message, PostCreatedEventDTO.class);
+        Integer cursor = event.getCursor() != null ? event.getCursor() : 0;
+        log.info("Рассылка уведомлений о посте {} подписчикам пользователя {} (курсор {})",
+                event.getPostId(), event.getAuthorUsername(), cursor);
+
+        String notificationMessage = "Посмотрите новый пост от " + event.getAuthorUsername();
+        long startedAt = System.currentTimeMillis();
+        long sent = 0;
+
+        try {
+            while (cursor != null) {
+                FollowerEmailsPageDTO page = getFollowerEmails(event.getAuthorId(), cursor);
+
+                CompletableFuture<?>[] futures = new CompletableFuture[page.getEmails().size()];
+                for (int i = 0; i < futures.length; i++) {
+                    String email = page.getEmails().get(i);
+                    futures[i] = kafkaTemplate.send("user-notifications-topic", email, toNotification(email, notificationMessage, event));
+                }
+                CompletableFuture.allOf(futures).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+
+                sent += futures.length;
+                cursor = page.getNextCursor();
+                throttle(startedAt, sent);
+            }
+
+            log.info("Рассылка о посте {} завершена, отправлено {} уведомлений", event.getPostId(), sent);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+
+            // Ни одна страница не подтверждена - повтор события целиком дублирует не больше одной страницы
+            if (sent == 0) {
+                log.warn("Рассылка о посте {} не начата (курсор {}): {}", event.getPostId(), cursor, e.getMessage());
+                throw new RuntimeException("Ошибка рассылки о посте " + event.getPostId() + ": " + e.getMessage(), e);
+            }
+
+            log.error("Рассылка о посте {} прервана после {} уведомлений (курсор {}): {}", event.getPostId(), sent, cursor, e.getMessage());
+            if (cursor != null) {
+                publishContinuation(event, cursor);
+            }
+        }
+    }
+
+    /// Продолжение рассылки с курсора прерванной страницы. Если его не удалось отправить,
+    /// событие повторяется с исходного курсора (уже отправленные страницы получат уведомление повторно)
+    private void publishContinuation(PostCreatedEventDTO event, int cursor) throws JsonProcessingException {
+        PostCreatedEventDTO continuation = new PostCreatedEventDTO(event.getAuthorId(), event.getAuthorUsername(), event.getPostId(), cursor);
+
+        try {
+            kafkaTemplate.send("post-created-topic", String.valueOf(event.getAuthorId()), objectMapper.writeValueAsString(continuation))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            log.info("Продолжение рассылки о посте {} с курсора {} опубликовано", event.getPostId(), cursor);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Не удалось опубликовать продолжение рассылки о посте " + event.getPostId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /// Страница почт подписчиков автора из registry-service
+    private FollowerEmailsPageDTO getFollowerEmails(int authorId, int cursor) {
+        String url = REGISTRY_SERVICE_URL + "/api/users/" + authorId + "/follower-emails?cursor=" + cursor + "&limit=" + pageSize;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
+
+        ResponseEntity<FollowerEmailsPageDTO> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                FollowerEmailsPageDTO.class
+        );
+
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
+        }
+
+        return response.getBody();
+    }
+
+    private String toNotification(String email, String notificationMessage, PostCreatedEventDTO event) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(
+                new NotificationDTO(email, notificationMessage, event.getAuthorUsername(), LocalDateTime.now())
+        );
+    }
+
+    /// Пауза, если отправлено больше, чем допускает max-per-second за прошедшее время
+    private void throttle(long startedAt, long sent) throws InterruptedException {
+        long expectedElapsedMs = sent * 1000 / maxPerSecond;
+        long actualElapsedMs = System.currentTimeMillis() - startedAt;
+
+        if (expectedElapsedMs > actualElapsedMs) {
+            Thread.sleep(expectedElapsedMs - actualElapsedMs);
+        }
+    }
+}
@@ -6,12 +6,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
-import ru.nand.postsuserservice.entities.DTO.CommentDTO;
+import ru.nand.postsuserservice.entities.DTO.CommentsPageDTO;
 import ru.nand.postsuserservice.entities.requests.CommentRequest;
 import ru.nand.postsuserservice.services.PostsCommentsService;
 
 import java.util.ArrayList;
-import java.util.List;
 
 @Slf4j
 @RestController
@@ -78,12 +77,14 @@ public class PostsCommentsController {
         }
     }
 
-    /// Получение всех комментариев поста
+    /// Получение страницы комментариев поста (cursor - nextCursor предыдущей страницы)
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<CommentDTO>> getPostComments(@PathVariable int postId){
+    public ResponseEntity<CommentsPageDTO> getPostComments(@PathVariable int postId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int limit){
         try{
             log.info("Пользовательский запрос на получение комментариев к посту id {}", postId);
-            return ResponseEntity.status(200).body(postsCommentsService.getPostComments(postId));
+            return ResponseEntity.status(200).body(postsCommentsService.getPostComments(postId, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
@@ -4,7 +4,10 @@ import com.google.common.net.HttpHeaders;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,8 +18,10 @@ import ru.nand.postsuserservice.services.PostsService;
 
 import java.io.ByteArrayInputStream;
 import java.net.URLConnection;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -84,6 +89,30 @@ public class PostsController {
         }
     }
 
+    /// Получение изображения поста по уникальному имени потоком.
+    /// Имена изображений не переиспользуются, поэтому ETag - само имя, а ответ кэшируется клиентом без срока.
+    /// Range и If-None-Match обрабатываются Spring для Resource ответа (206 и 304)
+    @GetMapping("/images/{name}")
+    public ResponseEntity<?> getImage(@PathVariable String name) {
+        try {
+            log.debug("Пользовательский запрос на получение изображения {}", name);
+            Resource image = postsService.getImage(name);
+
+            return ResponseEntity.status(200)
+                    .contentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                    .eTag(name)
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                    .body(image);
+        } catch (NoSuchFileException e) {
+            log.debug("Изображение {} не найдено", name);
+            return ResponseEntity.status(404).body("Изображение не найдено");
+        } catch (Exception e) {
+            // Таймауты и ошибки хранилища временные, клиент не должен считать изображение отсутствующим
+            log.error("Ошибка получения изображения {}: {}", name, e.getMessage());
+            return ResponseEntity.status(503).body("Хранилище изображений временно недоступно");
+        }
+    }
+
     /// Удаление поста
     @DeleteMapping("/id/{postId}")
     public ResponseEntity<?> deletePostById(@PathVariable int postId, @AuthenticationPrincipal UserDetails userDetails) {
@@ -116,12 +145,13 @@ public class PostsController {
         }
     }
 
-    /// Получение всех постов
+    /// Получение страницы всех постов (cursor - nextCursor предыдущей страницы)
     @GetMapping()
-    public ResponseEntity<?> getAllPosts(){
+    public ResponseEntity<?> getAllPosts(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit){
         try{
             log.info("Пользовательский запрос на получение всех постов");
-            return ResponseEntity.status(200).body(postsService.getAllPosts());
+            return ResponseEntity.status(200).body(postsService.getAllPosts(cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body("Посты не найдены");
@@ -130,10 +160,12 @@ public class PostsController {
 
     /// Получение постов текущего пользователя
     @GetMapping("/my")
-    public ResponseEntity<?> getMyPosts(@AuthenticationPrincipal UserDetails userDetails){
+    public ResponseEntity<?> getMyPosts(@AuthenticationPrincipal UserDetails userDetails,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit){
         try{
             log.info("Пользовательский запрос на получение собственных постов");
-            return ResponseEntity.status(200).body(postsService.getPostsByAuthor(userDetails.getUsername()));
+            return ResponseEntity.status(200).body(postsService.getPostsByAuthor(userDetails.getUsername(), cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body("Ваши посты не найдены");
@@ -142,10 +174,12 @@ public class PostsController {
 
     /// Получение постов конкретного пользователя
     @GetMapping("/author/{author}")
-    public ResponseEntity<?> getPostsByAuthor(@PathVariable String author){
+    public ResponseEntity<?> getPostsByAuthor(@PathVariable String author,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit){
         try{
             log.info("Пользовательский запрос на получение постов автора: {}", author);
-            return ResponseEntity.status(200).body(postsService.getPostsByAuthor(author));
+            return ResponseEntity.status(200).body(postsService.getPostsByAuthor(author, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body("Посты автора " + author + " не найдены");
@@ -154,33 +188,52 @@ public class PostsController {
 
     /// Получение постов подписок
     @GetMapping("/subscriptions")
-    public ResponseEntity<?> getSubscriptionsPosts(@AuthenticationPrincipal UserDetails userDetails){
+    public ResponseEntity<?> getSubscriptionsPosts(@AuthenticationPrincipal UserDetails userDetails,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit){
         try{
             log.info("Пользовательский запрос на получение постов подписок пользователя: {}", userDetails.getUsername());
-            return ResponseEntity.status(200).body(postsService.getSubscriptionsPosts(userDetails.getUsername()));
+            return ResponseEntity.status(200).body(postsService.getSubscriptionsPosts(userDetails.getUsername(), cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body("Посты подписок не найдены");
         }
     }
 
-    /// Получение постов по тэгам
+    /// Получение постов по тэгам (mode = and - все тэги, or - хотя бы один)
     @GetMapping("/search-by-tags")
-    public ResponseEntity<?> getPostsByTags(@RequestParam List<String> tags){
+    public ResponseEntity<?> getPostsByTags(@RequestParam List<String> tags,
+                                            @RequestParam(defaultValue = "and") String mode,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit){
         try {
-            return ResponseEntity.status(200).body(postsService.getPostsByTags(tags));
+            return ResponseEntity.status(200).body(postsService.getPostsByTags(tags, mode, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body("Посты не найдены");
         }
     }
 
+    /// Получение N самых популярных тэгов
+    @GetMapping("/popular-tags/{tagsCount}")
+    public ResponseEntity<?> getPopularTags(@PathVariable int tagsCount){
+        try {
+            log.info("Пользовательский запрос на получение {} популярных тэгов", tagsCount);
+            return ResponseEntity.status(200).body(postsService.getPopularTags(tagsCount));
+        } catch (Exception e){
+            log.error(e.getMessage());
+            return ResponseEntity.status(404).body("Тэги не найдены");
+        }
+    }
+
     /// Получение постов по тексту
     @GetMapping("/search-by-text")
-    public ResponseEntity<?> getPostsByText(@RequestBody String text){
+    public ResponseEntity<?> getPostsByText(@RequestBody String text,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit){
         try{
             log.info("Пользовательский запрос на получение постов по тексту: {}", text);
-            return ResponseEntity.status(200).body(postsService.getPostsByText(text));
+            return ResponseEntity.status(200).body(postsService.getPostsByText(text, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body("Посты не найдены");
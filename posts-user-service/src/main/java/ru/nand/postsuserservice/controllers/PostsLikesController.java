@@ -6,11 +6,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
-import ru.nand.postsuserservice.entities.DTO.UserDTO;
+import ru.nand.postsuserservice.entities.DTO.LikedUsersPageDTO;
 import ru.nand.postsuserservice.services.PostsLikesService;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping("/posts")
@@ -46,12 +44,14 @@ public class PostsLikesController {
         }
     }
 
-    /// Получение списка пользователей, лайкнувших пост
+    /// Получение страницы пользователей, лайкнувших пост (cursor - nextCursor предыдущей страницы)
     @GetMapping("/{postId}/likes")
-    public ResponseEntity<List<UserDTO>> getLikedUsers(@PathVariable int postId){
+    public ResponseEntity<LikedUsersPageDTO> getLikedUsers(@PathVariable int postId,
+                                                           @RequestParam(defaultValue = "0") int cursor,
+                                                           @RequestParam(defaultValue = "50") int limit){
         try{
             log.info("Пользовательский запрос на получение списка username'ов пользователей, лайкнувших пост с id: {}", postId);
-            return ResponseEntity.status(200).body(postsLikesService.getLikedUsers(postId));
+            return ResponseEntity.status(200).body(postsLikesService.getLikedUsers(postId, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
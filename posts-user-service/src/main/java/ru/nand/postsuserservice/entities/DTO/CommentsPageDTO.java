@@ -0,0 +1,15 @@
+package ru.nand.postsuserservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentsPageDTO {
+    private List<CommentDTO> comments;
+    private String nextCursor; // Курсор следующей страницы, null - страниц больше нет
+}
@@ -1,6 +1,7 @@
 package ru.nand.postsuserservice.entities.DTO;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -9,6 +10,7 @@ import java.util.List;
 import java.util.Set;
 
 @Data
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class PostDTO {
@@ -20,6 +22,7 @@ public class PostDTO {
     private int likes;
     private int comments;
     private List<String> imagesUrls;
+    private List<String> imagesLinks; // Ссылки на /posts/images/{name}
     private List<byte[]> images;
     private List<String> imagesBase64;
 }
@@ -0,0 +1,119 @@
+package ru.nand.postsuserservice.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.nand.postsuserservice.entities.DTO.PostDTO;
+import ru.nand.postsuserservice.utils.PostsUtil;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/// Заполнение изображений постов страницы. Ссылки на /posts/images/{name} проставляются всегда.
+/// Если включен inline-base64, все изображения страницы загружаются параллельно в виртуальных потоках
+/// (одновременные обращения к хранилищу ограничивает ImageCache), но не дольше deadline-ms на запрос:
+/// посты, изображения которых не успели загрузиться, возвращаются только со ссылками
+@Slf4j
+@Service
+public class ImageHydrationService {
+    private final PostsUtil postsUtil;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${posts.images.base-url:/posts/images/}")
+    private String imagesBaseUrl;
+
+    @Value("${posts.images.inline-base64:true}")
+    private boolean inlineBase64;
+
+    @Value("${posts.images.hydration.deadline-ms:2000}")
+    private long deadlineMs;
+
+    @Autowired
+    public ImageHydrationService(PostsUtil postsUtil) {
+        this.postsUtil = postsUtil;
+    }
+
+    public void hydrate(List<PostDTO> posts) {
+        List<PostDTO> postsWithImages = posts.stream()
+                .filter(post -> post.getImagesUrls() != null && !post.getImagesUrls().isEmpty())
+                .toList();
+
+        for (PostDTO post : postsWithImages) {
+            post.setImagesLinks(post.getImagesUrls().stream().map(imageName -> imagesBaseUrl + imageName).toList());
+        }
+
+        // Клиент запросит изображения по ссылкам сразу после страницы - готовим их чтение заранее
+        postsUtil.prefetchImages(postsWithImages.stream().flatMap(post -> post.getImagesUrls().stream()).toList());
+
+        if (inlineBase64 && !postsWithImages.isEmpty()) {
+            inlineImages(postsWithImages);
+        }
+    }
+
+    private void inlineImages(List<PostDTO> posts) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        // Запуск загрузки всех изображений страницы сразу
+        Map<PostDTO, List<CompletableFuture<String>>> downloads = new IdentityHashMap<>();
+        List<CompletableFuture<String>> all = new ArrayList<>();
+        for (PostDTO post : posts) {
+            List<CompletableFuture<String>> postDownloads = post.getImagesUrls().stream()
+                    .map(imageName -> CompletableFuture.supplyAsync(() -> encode(imageName), executor))
+                    .toList();
+            downloads.put(post, postDownloads);
+            all.addAll(postDownloads);
+        }
+
+        try {
+            CompletableFuture.allOf(all.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Не все изображения страницы загружены за {} мс", deadlineMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Ошибки отдельных изображений обрабатываются ниже по каждому посту
+        }
+
+        // Base64 кладется только постам, все изображения которых успели загрузиться
+        int partial = 0;
+        for (Map.Entry<PostDTO, List<CompletableFuture<String>>> entry : downloads.entrySet()) {
+            List<CompletableFuture<String>> postDownloads = entry.getValue();
+            boolean complete = postDownloads.stream().allMatch(f -> f.isDone() && !f.isCompletedExceptionally());
+
+            if (complete) {
+                entry.getKey().setImagesBase64(postDownloads.stream().map(CompletableFuture::join).toList());
+            } else {
+                partial++;
+            }
+        }
+
+        if (partial > 0) {
+            log.warn("{} из {} постов возвращены со ссылками вместо Base64 изображений", partial, posts.size());
+        }
+    }
+
+    private String encode(String imageName) {
+        try {
+            return postsUtil.downloadAndEncodeImage(imageName);
+        } catch (Exception e) {
+            log.warn("Ошибка загрузки изображения {}: {}", imageName, e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -5,18 +5,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import ru.nand.postsuserservice.entities.DTO.CommentCreateDTO;
-import ru.nand.postsuserservice.entities.DTO.CommentDTO;
+import ru.nand.postsuserservice.entities.DTO.CommentsPageDTO;
 import ru.nand.postsuserservice.entities.requests.CommentRequest;
 import ru.nand.postsuserservice.utils.JwtUtil;
 import ru.nand.postsuserservice.utils.PostsUtil;
 
 import java.util.Collections;
-import java.util.List;
 
 @Slf4j
 @Service
@@ -143,20 +141,21 @@ public class PostsCommentsService {
         }
     }
 
-    /// Получение всех комментариев поста
-    public List<CommentDTO> getPostComments(int postId){
-        String url = REGISTRY_SERVICE_URL + "/api/posts/" + postId + "/comments";
+    /// Получение страницы комментариев поста (cursor - url-safe base64 от registry-service, null - первая страница)
+    public CommentsPageDTO getPostComments(int postId, String cursor, int limit){
+        String url = REGISTRY_SERVICE_URL + "/api/posts/" + postId + "/comments?limit=" + limit
+                + (cursor != null && !cursor.isBlank() ? "&cursor=" + cursor : "");
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
 
         try {
-            ResponseEntity<List<CommentDTO>> response = restTemplate.exchange(
+            ResponseEntity<CommentsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    new ParameterizedTypeReference<>() {} // Чтобы exchange мог обрабатывать генерк-класс List
+                    CommentsPageDTO.class
             );
 
             if(!response.getStatusCode().is2xxSuccessful()){
@@ -164,10 +163,10 @@ public class PostsCommentsService {
                 throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
             }
 
-            List<CommentDTO> comments = response.getBody();
-            if (comments == null) return Collections.emptyList();
+            CommentsPageDTO page = response.getBody();
+            if (page == null || page.getComments() == null) return new CommentsPageDTO(Collections.emptyList(), null);
 
-            return comments;
+            return page;
         } catch (Exception e){
             log.warn("Ошибка при получении комментариев поста с id {}: {}", postId, e.getMessage());
             throw new RuntimeException("Ошибка при получении комментариев поста с id " + postId + ": " + e.getMessage());
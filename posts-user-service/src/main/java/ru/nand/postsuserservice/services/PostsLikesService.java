@@ -4,16 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import ru.nand.postsuserservice.entities.DTO.UserDTO;
+import ru.nand.postsuserservice.entities.DTO.LikedUsersPageDTO;
 import ru.nand.postsuserservice.utils.JwtUtil;
 import ru.nand.postsuserservice.utils.PostsUtil;
 
-import java.util.List;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -86,20 +83,20 @@ public class PostsLikesService {
         }
     }
 
-     /// Получение списка пользователей, лайкнувших пост
-    public List<UserDTO> getLikedUsers(int postId){
-        String url = REGISTRY_SERVICE_URL + "/api/posts/" + postId + "/likes";
+     /// Получение страницы пользователей, лайкнувших пост
+    public LikedUsersPageDTO getLikedUsers(int postId, int cursor, int limit){
+        String url = REGISTRY_SERVICE_URL + "/api/posts/" + postId + "/likes?cursor=" + cursor + "&limit=" + limit;
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
 
         try{
-            ResponseEntity<List<UserDTO>> response = restTemplate.exchange(
+            ResponseEntity<LikedUsersPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    new ParameterizedTypeReference<>() {}
+                    LikedUsersPageDTO.class
             );
 
             if (!response.getStatusCode().is2xxSuccessful()) {
@@ -0,0 +1,66 @@
+package ru.nand.postsuserservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import ru.nand.postsuserservice.entities.DTO.PostDTO;
+import ru.nand.postsuserservice.utils.JwtUtil;
+
+/// Получение поста из registry-service. В postCache кладется только ответ registry-service (текст, теги, имена изображений),
+/// ссылки и Base64 изображений добавляются к копии вне кэша, поэтому размер записи не зависит от изображений
+@Slf4j
+@Service
+public class PostsRegistryClient {
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final JwtUtil jwtUtil;
+
+    @Value("${interservice.header.name}")
+    private String HEADER_NAME;
+
+    @Value("${registry.service.url}")
+    private String REGISTRY_SERVICE_URL;
+
+    @Autowired
+    public PostsRegistryClient(RestTemplate restTemplate, ObjectMapper objectMapper, JwtUtil jwtUtil) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Cacheable(value = "postCache", key = "#postId")
+    public PostDTO getPost(int postId) {
+        String url = REGISTRY_SERVICE_URL + "/api/posts/" + postId;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
+
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    requestEntity,
+                    String.class
+            );
+
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                log.warn("Неуспешный ответ от registry-service при получении поста по id {}: {}", postId, response.getStatusCode());
+                throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
+            }
+
+            return objectMapper.readValue(response.getBody(), PostDTO.class);
+        } catch (Exception e) {
+            log.warn("Ошибка при получении поста: {}", e.getMessage());
+            throw new RuntimeException("Ошибка при получении поста с id " + postId + ": " + e.getMessage());
+        }
+    }
+}
@@ -7,18 +7,21 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import ru.nand.postsuserservice.entities.DTO.PostCreateDTO;
 import ru.nand.postsuserservice.entities.DTO.PostDTO;
 import ru.nand.postsuserservice.entities.DTO.PostUpdateDTO;
+import ru.nand.postsuserservice.entities.DTO.PostsPageDTO;
+import ru.nand.postsuserservice.entities.DTO.TagCountDTO;
 import ru.nand.postsuserservice.entities.requests.PostRequest;
 import ru.nand.postsuserservice.utils.JwtUtil;
 import ru.nand.postsuserservice.utils.PostsUtil;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,6 +34,8 @@ public class PostsService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final JwtUtil jwtUtil;
+    private final ImageHydrationService imageHydrationService;
+    private final PostsRegistryClient postsRegistryClient;
 
     @Value("${interservice.header.name}")
     private String HEADER_NAME;
@@ -95,47 +100,15 @@ public class PostsService {
         }
     }
 
-    /// Получение поста по id
-    @Cacheable(value = "postCache", key = "#postId", unless = "#result == null")
+    /// Получение поста по id. Из кэша берется ответ registry-service, изображения добавляются к копии,
+    /// чтобы ссылки и Base64 не попадали в postCache
     public PostDTO getPostById(int postId) {
-        String url = REGISTRY_SERVICE_URL + "/api/posts/" + postId;
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
-
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    requestEntity,
-                    String.class
-            );
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.warn("Неуспешный ответ от registry-service при получении поста по id {}: {}", postId, response.getStatusCode());
-                throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
-            }
+        PostDTO postDTO = postsRegistryClient.getPost(postId).toBuilder().build();
 
-            // Десериализуем в DTO
-            PostDTO postDTO = objectMapper.readValue(response.getBody(), PostDTO.class);
+        // Ссылки на изображения (или Base64 для старых клиентов)
+        imageHydrationService.hydrate(List.of(postDTO));
 
-            // Если список уникальных имен фотографий не пустой
-            if (!postDTO.getImagesUrls().isEmpty()) {
-                // То загружаем изображения и добавляем их в DTO в формате Base64
-                List<String> imagesBase64 = new ArrayList<>();
-                for (String imageName : postDTO.getImagesUrls()) {
-                    String base64Image = postsUtil.downloadAndEncodeImage(imageName);
-                    imagesBase64.add(base64Image);
-                }
-                postDTO.setImagesBase64(imagesBase64);
-            }
-
-            return postDTO;
-        } catch (Exception e) {
-            log.warn("Ошибка при получении поста: {}", e.getMessage());
-            throw new RuntimeException("Ошибка при получении поста с id " + postId + ": " + e.getMessage());
-        }
+        return postDTO;
     }
 
     /// Удаление поста
@@ -171,7 +144,7 @@ public class PostsService {
 
             // Удаляем изображения с диска
             for(String filename : filenames){
-                postsUtil.deleteFile("/imagesFolder/" + filename);
+                postsUtil.deleteImage(filename);
             }
 
             return response.getBody();
@@ -198,7 +171,7 @@ public class PostsService {
             if (existingPost.getImagesUrls() != null && !existingPost.getImagesUrls().isEmpty()) {
                 for(String filename : existingPost.getImagesUrls()){
                     try {
-                        postsUtil.deleteFile("/imagesFolder/" + filename);
+                        postsUtil.deleteImage(filename);
                     } catch (Exception e){
                         log.warn("Ошибка удаления старого изображения {}: {}", filename, e.getMessage());
                         throw new RuntimeException("Ошибка удаления изображения");
@@ -255,20 +228,20 @@ public class PostsService {
         }
     }
 
-    /// Получение всех постов
-    public List<PostDTO> getAllPosts(){
-        String url = REGISTRY_SERVICE_URL + "/api/posts";
+    /// Получение страницы всех постов
+    public PostsPageDTO getAllPosts(String cursor, Integer limit){
+        String url = withPage(REGISTRY_SERVICE_URL + "/api/posts", cursor, limit);
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
 
         try{
-            ResponseEntity<List<PostDTO>> response = restTemplate.exchange(
+            ResponseEntity<PostsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    new ParameterizedTypeReference<>() {} // Чтобы exchange мог обрабатывать генерк-класс List
+                    PostsPageDTO.class
             );
 
             if(!response.getStatusCode().is2xxSuccessful()){
@@ -276,24 +249,13 @@ public class PostsService {
                 throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
             }
 
-            List<PostDTO> posts = response.getBody();
-            if (posts == null) return Collections.emptyList();
-
-            // Подгрузка изображений для каждого поста с переводом изображения в base64
-            for(PostDTO post : posts){
-                // Если список уникальных имен фотографий не пустой
-                if (!post.getImagesUrls().isEmpty()) {
-                    // То загружаем изображения и добавляем их в DTO в формате Base64
-                    List<String> imagesBase64 = new ArrayList<>();
-                    for (String imageName : post.getImagesUrls()) {
-                        String base64Image = postsUtil.downloadAndEncodeImage(imageName);
-                        imagesBase64.add(base64Image);
-                    }
-                    post.setImagesBase64(imagesBase64);
-                }
-            }
+            PostsPageDTO page = response.getBody();
+            if (page == null || page.getPosts() == null) return new PostsPageDTO(Collections.emptyList(), null);
+
+            // Ссылки на изображения (или Base64 для старых клиентов)
+            imageHydrationService.hydrate(page.getPosts());
 
-            return posts;
+            return page;
         } catch (Exception e){
             log.warn("Ошибка при получении всех постов: {}", e.getMessage());
             throw new RuntimeException("Ошибка при получениии всех постов: " + e.getMessage());
@@ -301,19 +263,19 @@ public class PostsService {
     }
 
     /// Получение постов конкретного пользователя
-    public List<PostDTO> getPostsByAuthor(String authorUsername){
-        String url = REGISTRY_SERVICE_URL + "/api/posts/user/" + authorUsername;
+    public PostsPageDTO getPostsByAuthor(String authorUsername, String cursor, Integer limit){
+        String url = withPage(REGISTRY_SERVICE_URL + "/api/posts/user/" + authorUsername, cursor, limit);
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
 
         try {
-            ResponseEntity<List<PostDTO>> response = restTemplate.exchange(
+            ResponseEntity<PostsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    new ParameterizedTypeReference<>() {}
+                    PostsPageDTO.class
             );
 
             if(!response.getStatusCode().is2xxSuccessful()){
@@ -321,23 +283,13 @@ public class PostsService {
                 throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
             }
 
-            List<PostDTO> posts = response.getBody();
-            if (posts == null) return Collections.emptyList();
-
-            for(PostDTO post : posts){
-                // Если список уникальных имен фотографий не пустой
-                if (!post.getImagesUrls().isEmpty()) {
-                    // То загружаем изображения и добавляем их в DTO в формате Base64
-                    List<String> imagesBase64 = new ArrayList<>();
-                    for (String imageName : post.getImagesUrls()) {
-                        String base64Image = postsUtil.downloadAndEncodeImage(imageName);
-                        imagesBase64.add(base64Image);
-                    }
-                    post.setImagesBase64(imagesBase64);
-                }
-            }
+            PostsPageDTO page = response.getBody();
+            if (page == null || page.getPosts() == null) return new PostsPageDTO(Collections.emptyList(), null);
+
+            // Ссылки на изображения (или Base64 для старых клиентов)
+            imageHydrationService.hydrate(page.getPosts());
 
-            return posts;
+            return page;
         } catch (Exception e){
             log.warn("Ошибка при получении постов пользователя {}: {}", authorUsername, e.getMessage());
             throw new RuntimeException("Ошибка при получении постов пользователя " + authorUsername + ": " + e.getMessage());
@@ -345,8 +297,8 @@ public class PostsService {
     }
 
     /// Получение постов подписок
-    public List<PostDTO> getSubscriptionsPosts(String username){
-        String url = REGISTRY_SERVICE_URL + "/api/posts/subscriptions?username=" + username;
+    public PostsPageDTO getSubscriptionsPosts(String username, String cursor, Integer limit){
+        String url = withPage(REGISTRY_SERVICE_URL + "/api/posts/subscriptions?username=" + username, cursor, limit);
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
@@ -354,11 +306,11 @@ public class PostsService {
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
 
         try{
-            ResponseEntity<List<PostDTO>> response = restTemplate.exchange(
+            ResponseEntity<PostsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    new ParameterizedTypeReference<>() {}
+                    PostsPageDTO.class
             );
 
             if(!response.getStatusCode().is2xxSuccessful()){
@@ -366,32 +318,22 @@ public class PostsService {
                 throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
             }
 
-            List<PostDTO> posts = response.getBody();
-            if (posts == null) return Collections.emptyList();
-
-            for(PostDTO post : posts){
-                // Если список уникальных имен фотографий не пустой
-                if (!post.getImagesUrls().isEmpty()) {
-                    // То загружаем изображения и добавляем их в DTO в формате Base64
-                    List<String> imagesBase64 = new ArrayList<>();
-                    for (String imageName : post.getImagesUrls()) {
-                        String base64Image = postsUtil.downloadAndEncodeImage(imageName);
-                        imagesBase64.add(base64Image);
-                    }
-                    post.setImagesBase64(imagesBase64);
-                }
-            }
+            PostsPageDTO page = response.getBody();
+            if (page == null || page.getPosts() == null) return new PostsPageDTO(Collections.emptyList(), null);
+
+            // Ссылки на изображения (или Base64 для старых клиентов)
+            imageHydrationService.hydrate(page.getPosts());
 
-            return posts;
+            return page;
         } catch (Exception e){
             log.warn("Ошибка при получении постов подписок польователя {}: {}", username, e.getMessage());
             throw new RuntimeException("Ошибка при получении постов подписок пользователя " + username + ": " + e.getMessage());
         }
     }
 
-    /// Поиск постов по тэгам
-    public List<PostDTO> getPostsByTags(List<String> tags){
-        String url = REGISTRY_SERVICE_URL + "/api/posts/search-by-tags?tags=" + String.join(",", tags);
+    /// Поиск постов по тэгам (mode = and - все тэги, or - хотя бы один)
+    public PostsPageDTO getPostsByTags(List<String> tags, String mode, String cursor, Integer limit){
+        String url = withPage(REGISTRY_SERVICE_URL + "/api/posts/search-by-tags?tags=" + String.join(",", tags) + "&mode=" + mode, cursor, limit);
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
@@ -399,11 +341,11 @@ public class PostsService {
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
 
         try{
-            ResponseEntity<List<PostDTO>> response = restTemplate.exchange(
+            ResponseEntity<PostsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    new ParameterizedTypeReference<>() {}
+                    PostsPageDTO.class
             );
 
             if(!response.getStatusCode().is2xxSuccessful()){
@@ -411,32 +353,51 @@ public class PostsService {
                 throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
             }
 
-            List<PostDTO> posts = response.getBody();
-            if (posts == null) return Collections.emptyList();
-
-            for(PostDTO post : posts){
-                // Если список уникальных имен фотографий не пустой
-                if (!post.getImagesUrls().isEmpty()) {
-                    // То загружаем изображения и добавляем их в DTO в формате Base64
-                    List<String> imagesBase64 = new ArrayList<>();
-                    for (String imageName : post.getImagesUrls()) {
-                        String base64Image = postsUtil.downloadAndEncodeImage(imageName);
-                        imagesBase64.add(base64Image);
-                    }
-                    post.setImagesBase64(imagesBase64);
-                }
-            }
+            PostsPageDTO page = response.getBody();
+            if (page == null || page.getPosts() == null) return new PostsPageDTO(Collections.emptyList(), null);
 
-            return posts;
+            // Ссылки на изображения (или Base64 для старых клиентов)
+            imageHydrationService.hydrate(page.getPosts());
+
+            return page;
         } catch (Exception e){
             log.warn("Ошибка при получении постов по тэгам: {}: {}", tags, e.getMessage());
             throw new RuntimeException("Ошибка при получении постов по тэгам " + tags + ": " + e.getMessage());
         }
     }
 
+    /// Получение N самых популярных тэгов
+    public List<TagCountDTO> getPopularTags(int tagsCount){
+        String url = REGISTRY_SERVICE_URL + "/api/posts/popular-tags/" + tagsCount;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
+
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+
+        try{
+            ResponseEntity<List<TagCountDTO>> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    requestEntity,
+                    new ParameterizedTypeReference<>() {} // Чтобы exchange мог обрабатывать генерик-класс List
+            );
+
+            if(!response.getStatusCode().is2xxSuccessful()){
+                log.warn("Неуспешный ответ от registry-service при получении популярных тэгов: {}", response.getStatusCode());
+                throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
+            }
+
+            return response.getBody() != null ? response.getBody() : Collections.emptyList();
+        } catch (Exception e){
+            log.warn("Ошибка при получении популярных тэгов: {}", e.getMessage());
+            throw new RuntimeException("Ошибка при получении популярных тэгов: " + e.getMessage());
+        }
+    }
+
     /// Получение постов по тексту
-    public List<PostDTO> getPostsByText(String text){
-        String url = REGISTRY_SERVICE_URL + "/api/posts/search-by-text?text=" + text;
+    public PostsPageDTO getPostsByText(String text, String cursor, Integer limit){
+        String url = withPage(REGISTRY_SERVICE_URL + "/api/posts/search-by-text?text=" + text, cursor, limit);
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HEADER_NAME, "Bearer " + jwtUtil.generateInterServiceJwt());
@@ -444,11 +405,11 @@ public class PostsService {
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
 
         try{
-            ResponseEntity<List<PostDTO>> response = restTemplate.exchange(
+            ResponseEntity<PostsPageDTO> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    new ParameterizedTypeReference<>() {}
+                    PostsPageDTO.class
             );
 
             if(!response.getStatusCode().is2xxSuccessful()){
@@ -456,28 +417,37 @@ public class PostsService {
                 throw new RuntimeException("Неуспешный ответ от registry-service: " + response.getStatusCode());
             }
 
-            List<PostDTO> posts = response.getBody();
-            if (posts == null) return Collections.emptyList();
-
-            for(PostDTO post : posts){
-                // Если список уникальных имен фотографий не пустой
-                if (!post.getImagesUrls().isEmpty()) {
-                    // То загружаем изображения и добавляем их в DTO в формате Base64
-                    List<String> imagesBase64 = new ArrayList<>();
-                    for (String imageName : post.getImagesUrls()) {
-                        String base64Image = postsUtil.downloadAndEncodeImage(imageName);
-                        imagesBase64.add(base64Image);
-                    }
-                    post.setImagesBase64(imagesBase64);
-                }
-            }
+            PostsPageDTO page = response.getBody();
+            if (page == null || page.getPosts() == null) return new PostsPageDTO(Collections.emptyList(), null);
+
+            // Ссылки на изображения (или Base64 для старых клиентов)
+            imageHydrationService.hydrate(page.getPosts());
 
-            return posts;
+            return page;
         } catch (Exception e){
             log.warn("Ошибка при получении постов по тексту: {}: {}", text, e.getMessage());
             throw new RuntimeException("Ошибка при получении постов по тексту " + text + ": " + e.getMessage());
         }
     }
 
+    /// Изображение поста по уникальному имени для отдачи потоком
+    public Resource getImage(String imageName) throws IOException {
+        return postsUtil.loadImage(imageName);
+    }
+
+    /// Добавление параметров страницы к запросу в registry-service (курсор - url-safe base64, не требует кодирования)
+    private String withPage(String url, String cursor, Integer limit) {
+        List<String> params = new ArrayList<>();
+        if (cursor != null && !cursor.isBlank()) {
+            params.add("cursor=" + cursor);
+        }
+        if (limit != null) {
+            params.add("limit=" + limit);
+        }
 
+        if (params.isEmpty()) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + String.join("&", params);
+    }
 }
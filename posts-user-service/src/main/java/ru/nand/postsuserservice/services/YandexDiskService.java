@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
@@ -14,8 +15,10 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.io.IOException;
 import java.io.InputStream;
 
+/// REST клиент Яндекс.Диска, используется хранилищем YandexDiskBlobStore
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "posts.images.store", havingValue = "yandex", matchIfMissing = true)
 public class YandexDiskService {
 
     @Setter
@@ -23,6 +26,10 @@ public class YandexDiskService {
     @Value("${yandex.token}")
     private String token;
 
+    /// Адрес REST API (можно направить на заглушку для прогонов без сети)
+    @Value("${yandex.api.url:https://cloud-api.yandex.net}")
+    private String apiUrl;
+
     private final RestTemplate restTemplate;
 
     public YandexDiskService(RestTemplate restTemplate) {
@@ -31,7 +38,7 @@ public class YandexDiskService {
 
     /// Установка
     public String download(String path) throws IOException {
-        final String baseUrl = "https://cloud-api.yandex.net/v1/disk/resources/download";
+        final String baseUrl = apiUrl + "/v1/disk/resources/download";
         RequestEntity<Void> requestEntity = RequestEntity.get(
                         UriComponentsBuilder.fromUriString(baseUrl)
                                 .queryParam("path", path)
@@ -50,7 +57,7 @@ public class YandexDiskService {
 
     /// Загрузка на диск
     public void upload(InputStream is, String fullFileName) throws IOException {
-        final String baseUrl = "https://cloud-api.yandex.net/v1/disk/resources/upload";
+        final String baseUrl = apiUrl + "/v1/disk/resources/upload";
 
         RequestEntity<Void> requestEntity = RequestEntity.get(
                         UriComponentsBuilder.fromUriString(baseUrl)
@@ -74,16 +81,16 @@ public class YandexDiskService {
                 requestToUpload, String.class
         );
 
-        if (responseToUpload.getStatusCode().is2xxSuccessful()) {
-            log.debug("Файл успешно загружен");
-        } else {
-            System.out.println(responseToUpload.getBody() + " | " + responseToUpload.getStatusCode());
+        if (!responseToUpload.getStatusCode().is2xxSuccessful()) {
+            log.warn("Ошибка при загрузке файла {}: {} {}", fullFileName, responseToUpload.getStatusCode(), responseToUpload.getBody());
+            throw new IOException("Ошибка загрузки файла: " + responseToUpload.getStatusCode());
         }
+        log.debug("Файл успешно загружен");
     }
 
     /// Создание директории
     public void createDirectory(String path) {
-        final String baseUrl = "https://cloud-api.yandex.net/v1/disk/resources";
+        final String baseUrl = apiUrl + "/v1/disk/resources";
         RequestEntity<Void> requestEntity = RequestEntity.put(
                         UriComponentsBuilder.fromUriString(baseUrl)
                                 .queryParam("path", path)
@@ -104,7 +111,7 @@ public class YandexDiskService {
 
     /// Удаление файла с Яндекс.Диска
     public void deleteFile(String path) throws IOException {
-        final String baseUrl = "https://cloud-api.yandex.net/v1/disk/resources";
+        final String baseUrl = apiUrl + "/v1/disk/resources";
 
         // Формируем запрос на удаление
         RequestEntity<Void> requestEntity = RequestEntity.delete(
@@ -0,0 +1,31 @@
+package ru.nand.postsuserservice.storage;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+/// Хранилище изображений постов. Реализация выбирается свойством posts.images.store:
+/// yandex - Яндекс.Диск (YandexDiskBlobStore), local - локальная файловая система (LocalBlobStore)
+public interface BlobStore {
+
+    /// Сохранение объекта под именем name (size - размер в байтах, -1 если неизвестен)
+    void put(String name, InputStream content, long size) throws IOException;
+
+    /// Чтение объекта целиком
+    byte[] read(String name) throws IOException;
+
+    /// Объект для потоковой отдачи (длина известна заранее, поэтому поддерживаются Range запросы)
+    default Resource resource(String name) throws IOException {
+        return new ByteArrayResource(read(name));
+    }
+
+    /// Заблаговременная подготовка чтения объектов (например, получение ссылок на скачивание), не блокирует вызывающего
+    default void prefetch(Collection<String> names) {
+    }
+
+    /// Удаление объекта (отсутствующий объект ошибкой не считается)
+    void delete(String name) throws IOException;
+}
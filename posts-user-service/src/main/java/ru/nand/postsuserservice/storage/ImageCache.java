@@ -0,0 +1,192 @@
+package ru.nand.postsuserservice.storage;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/// Кэш байтов изображений с ограничением по суммарному размеру (W-TinyLFU вытеснение Caffeine).
+/// Байты хранятся в direct буферах вне кучи, поэтому большой кэш не увеличивает нагрузку на GC.
+/// Запись вытесняется, если к ней не обращались idle-ttl-seconds. Одновременные промахи по одному имени
+/// ждут одну загрузку из хранилища (AsyncCache хранит future загрузки до ее завершения).
+/// Память вытесненного буфера освобождается только при сборке мусора, поэтому занятая direct память может временно
+/// превышать max-bytes: -XX:MaxDirectMemorySize должен быть заметно больше posts.images.cache.max-bytes
+/// (по умолчанию он равен -Xmx), иначе возможен OutOfMemoryError: Direct buffer memory
+@Slf4j
+@Component
+public class ImageCache {
+    private final BlobStore blobStore;
+    private final AsyncCache<String, ByteBuffer> cache;
+    private final boolean enabled;
+    private final ExecutorService loaderExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /// Ограничение одновременных обращений к хранилищу (параллельная загрузка страницы не должна заваливать бэкенд)
+    private final Semaphore backendPermits;
+    private final long backendAcquireTimeoutMs;
+
+    private final Counter loadedBytesCounter;
+    private final Counter servedBytesCounter;
+
+    @Autowired
+    public ImageCache(BlobStore blobStore,
+                      MeterRegistry meterRegistry,
+                      @Value("${posts.images.cache.enabled:true}") boolean enabled,
+                      @Value("${posts.images.cache.max-bytes:268435456}") long maxBytes,
+                      @Value("${posts.images.cache.idle-ttl-seconds:600}") long idleTtlSeconds,
+                      @Value("${posts.images.backend.max-concurrency:16}") int backendMaxConcurrency,
+                      @Value("${posts.images.backend.acquire-timeout-ms:5000}") long backendAcquireTimeoutMs) {
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.backendPermits = new Semaphore(backendMaxConcurrency);
+        this.backendAcquireTimeoutMs = backendAcquireTimeoutMs;
+
+        // Загрузки идут в виртуальных потоках: это сетевое ожидание, а не вычисления
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String name, ByteBuffer bytes) -> bytes.capacity())
+                .expireAfterAccess(Duration.ofSeconds(idleTtlSeconds))
+                .executor(loaderExecutor)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "imageCache");
+        Gauge.builder("images.cache.bytes", cache, c -> c.synchronous().policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .description("Суммарный размер изображений в кэше")
+                .register(meterRegistry);
+        this.loadedBytesCounter = meterRegistry.counter("images.cache.loaded.bytes");
+        this.servedBytesCounter = meterRegistry.counter("images.cache.served.bytes");
+
+        if (enabled) {
+            checkDirectMemoryLimit(maxBytes);
+        }
+    }
+
+    /// Изображение целиком (копия в куче, например для кодирования в Base64)
+    public byte[] read(String name) throws IOException {
+        if (!enabled) {
+            return readFromStore(name);
+        }
+
+        ByteBuffer buffer = get(name).duplicate();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /// Изображение для потоковой отдачи прямо из буфера кэша
+    public Resource resource(String name) throws IOException {
+        if (!enabled) {
+            return blobStore.resource(name);
+        }
+
+        return new ByteBufferResource(get(name), name);
+    }
+
+    /// Подготовка чтения изображений страницы, которых еще нет в кэше (в фоне, см. BlobStore.prefetch)
+    public void prefetch(Collection<String> names) {
+        List<String> missing = enabled
+                ? names.stream().filter(name -> cache.getIfPresent(name) == null).toList()
+                : List.copyOf(names);
+
+        if (!missing.isEmpty()) {
+            blobStore.prefetch(missing);
+        }
+    }
+
+    /// Удаление из кэша (после удаления изображения из хранилища)
+    public void invalidate(String name) {
+        cache.synchronous().invalidate(name);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loaderExecutor.shutdownNow();
+        cache.synchronous().invalidateAll();
+    }
+
+    /// Предупреждение при старте, если лимита direct памяти не хватает на кэш с запасом на еще не собранные буферы
+    private void checkDirectMemoryLimit(long maxBytes) {
+        try {
+            HotSpotDiagnosticMXBean diagnostic = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            long maxDirectMemory = Long.parseLong(diagnostic.getVMOption("MaxDirectMemorySize").getValue());
+            long limit = maxDirectMemory > 0 ? maxDirectMemory : Runtime.getRuntime().maxMemory();
+
+            if (limit < maxBytes * 2) {
+                log.warn("Лимит direct памяти {} байт меньше двух posts.images.cache.max-bytes ({} байт), " +
+                        "увеличьте -XX:MaxDirectMemorySize или уменьшите кэш", limit, maxBytes);
+            }
+        } catch (Exception e) {
+            log.debug("Не удалось определить лимит direct памяти: {}", e.getMessage());
+        }
+    }
+
+    private ByteBuffer get(String name) throws IOException {
+        try {
+            ByteBuffer buffer = cache.get(name, this::load).join();
+            servedBytesCounter.increment(buffer.capacity());
+            return buffer;
+        } catch (CompletionException e) {
+            // Неудачная загрузка в кэше не остается, следующий запрос попробует снова
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Ошибка загрузки изображения " + name + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private byte[] readFromStore(String name) throws IOException {
+        try {
+            if (!backendPermits.tryAcquire(backendAcquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Превышено время ожидания хранилища изображений для " + name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка изображения " + name + " прервана");
+        }
+
+        try {
+            return blobStore.read(name);
+        } finally {
+            backendPermits.release();
+        }
+    }
+
+    private ByteBuffer load(String name) {
+        try {
+            byte[] bytes = readFromStore(name);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+
+            loadedBytesCounter.increment(bytes.length);
+            log.debug("Изображение {} ({} байт) загружено в кэш", name, bytes.length);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
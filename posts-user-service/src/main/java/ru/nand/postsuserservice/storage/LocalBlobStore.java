@@ -0,0 +1,117 @@
+package ru.nand.postsuserservice.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import ru.nand.postsuserservice.utils.TokenHashUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/// Хранилище изображений на локальном диске без сетевых вызовов (для одиночного развертывания, тестов и нагрузочных прогонов).
+/// Файлы раскладываются по каталогам root/ab/cd/name, где ab и cd - первые байты SHA-256 от имени,
+/// чтобы в одном каталоге не копились сотни тысяч файлов
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "posts.images.store", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+    private final Path root;
+
+    /// Файлы больше порога читаются через отображение в память, меньшие - обычным чтением из канала
+    private final long mmapThresholdBytes;
+
+    public LocalBlobStore(@Value("${posts.images.local.root}") String root,
+                          @Value("${posts.images.local.mmap-threshold-bytes:262144}") long mmapThresholdBytes) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.mmapThresholdBytes = mmapThresholdBytes;
+
+        Files.createDirectories(this.root);
+        log.info("Изображения постов хранятся локально в {}", this.root);
+    }
+
+    /// Запись во временный файл того же каталога и атомарное переименование: читатели не видят недописанный файл
+    @Override
+    public void put(String name, InputStream content, long size) throws IOException {
+        Path target = resolve(name);
+        Files.createDirectories(target.getParent());
+
+        Path tmp = Files.createTempFile(target.getParent(), name, ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             ReadableByteChannel source = Channels.newChannel(content)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = channel.transferFrom(source, position, 1 << 20)) > 0) {
+                position += transferred;
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Файл {} сохранен в {}", name, target);
+    }
+
+    @Override
+    public byte[] read(String name) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(name), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Файл " + name + " слишком большой: " + size + " байт");
+            }
+
+            byte[] bytes = new byte[(int) size];
+            if (size >= mmapThresholdBytes) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mapped.get(bytes);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Файл " + name + " изменился во время чтения");
+                    }
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /// Файл отдается напрямую с диска, без чтения в память целиком
+    @Override
+    public Resource resource(String name) throws IOException {
+        Path path = resolve(name);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(name);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        Files.deleteIfExists(resolve(name));
+    }
+
+    /// Путь к файлу в шардированном каталоге, имя не может выйти за пределы root
+    private Path resolve(String name) throws IOException {
+        if (name == null || name.isBlank() || name.contains("/") || name.contains("\\") || name.startsWith(".")) {
+            throw new NoSuchFileException(name, null, "Недопустимое имя файла");
+        }
+
+        String hash = TokenHashUtil.sha256Hex(name);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(name);
+    }
+}
@@ -0,0 +1,159 @@
+package ru.nand.postsuserservice.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import ru.nand.postsuserservice.services.YandexDiskService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/// Хранилище изображений на Яндекс.Диске (папка /imagesFolder)
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "posts.images.store", havingValue = "yandex", matchIfMissing = true)
+public class YandexDiskBlobStore implements BlobStore {
+    private static final String FOLDER = "/imagesFolder/";
+
+    /// Ответы сервера скачивания на устаревшую ссылку
+    private static final Set<Integer> STALE_HREF_STATUSES = Set.of(403, 404, 410);
+
+    private final YandexDiskService yandexDiskService;
+    private final RestTemplate restTemplate;
+
+    /// Ссылки на скачивание по пути файла. Срок хранения меньше времени жизни ссылки Яндекс.Диска,
+    /// поэтому с прогретым кэшем чтение файла - один HTTP запрос вместо двух
+    private final Cache<String, String> hrefCache;
+
+    private final ExecutorService prefetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore prefetchPermits;
+
+    @Autowired
+    public YandexDiskBlobStore(YandexDiskService yandexDiskService,
+                               RestTemplate restTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${yandex.href-cache.ttl-seconds:900}") long hrefTtlSeconds,
+                               @Value("${yandex.href-cache.max-size:100000}") long hrefCacheMaxSize,
+                               @Value("${yandex.href-cache.prefetch-concurrency:8}") int prefetchConcurrency) {
+        this.yandexDiskService = yandexDiskService;
+        this.restTemplate = restTemplate;
+        this.prefetchPermits = new Semaphore(prefetchConcurrency);
+
+        this.hrefCache = Caffeine.newBuilder()
+                .maximumSize(hrefCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(hrefTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hrefCache, "yandexHrefCache");
+    }
+
+    @Override
+    public void put(String name, InputStream content, long size) throws IOException {
+        yandexDiskService.upload(content, FOLDER + name);
+    }
+
+    /// Скачивание файла по ссылке из кэша. Если сервер скачивания отклонил ссылку как устаревшую (403, 404, 410),
+    /// она получается заново и скачивание повторяется один раз. Ошибки получения самой ссылки не повторяются
+    @Override
+    public byte[] read(String name) throws IOException {
+        String path = FOLDER + name;
+        String href = resolveHref(path);
+
+        try {
+            return downloadFile(href);
+        } catch (HttpClientErrorException e) {
+            if (!STALE_HREF_STATUSES.contains(e.getStatusCode().value())) {
+                throw e;
+            }
+            log.debug("Ссылка на скачивание {} устарела ({}), получаем новую", path, e.getStatusCode());
+            hrefCache.invalidate(path);
+        }
+
+        try {
+            return downloadFile(resolveHref(path));
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new NoSuchFileException(path);
+        }
+    }
+
+    /// Получение ссылок на скачивание страницы изображений параллельно в фоне (у API нет пакетного метода)
+    @Override
+    public void prefetch(Collection<String> names) {
+        for (String name : names) {
+            String path = FOLDER + name;
+            if (hrefCache.getIfPresent(path) != null) {
+                continue;
+            }
+
+            prefetchExecutor.execute(() -> {
+                if (!prefetchPermits.tryAcquire()) {
+                    return; // Не копим очередь: ссылку получит само чтение
+                }
+                try {
+                    resolveHref(path);
+                } catch (Exception e) {
+                    log.debug("Не удалось заранее получить ссылку на {}: {}", path, e.getMessage());
+                } finally {
+                    prefetchPermits.release();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        hrefCache.invalidate(FOLDER + name);
+        yandexDiskService.deleteFile(FOLDER + name);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /// Ссылка на скачивание из кэша, одновременные промахи по одному пути ждут один запрос к API
+    private String resolveHref(String path) throws IOException {
+        try {
+            return hrefCache.get(path, p -> {
+                try {
+                    return URLDecoder.decode(yandexDiskService.download(p), StandardCharsets.UTF_8);
+                } catch (HttpClientErrorException.NotFound e) {
+                    throw new UncheckedIOException(new NoSuchFileException(p));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private byte[] downloadFile(String downloadLink) throws IOException {
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(downloadLink, byte[].class);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            log.warn("Ошибка при скачивании файла по ссылке: {}", response.getStatusCode());
+            throw new IOException("Ошибка скачивания файла: " + response.getStatusCode());
+        }
+        return response.getBody();
+    }
+}
@@ -2,15 +2,13 @@ package ru.nand.postsuserservice.utils;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import ru.nand.postsuserservice.services.YandexDiskService;
+import ru.nand.postsuserservice.storage.BlobStore;
+import ru.nand.postsuserservice.storage.ImageCache;
 
 import java.io.IOException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
@@ -19,16 +17,16 @@ import java.util.UUID;
 @Slf4j
 @Component
 public class PostsUtil {
-    private final YandexDiskService yandexDiskService;
-    private final RestTemplate restTemplate;
+    private final BlobStore blobStore;
+    private final ImageCache imageCache;
 
     @Autowired
-    public PostsUtil(YandexDiskService yandexDiskService, RestTemplate restTemplate) {
-        this.yandexDiskService = yandexDiskService;
-        this.restTemplate = restTemplate;
+    public PostsUtil(BlobStore blobStore, ImageCache imageCache) {
+        this.blobStore = blobStore;
+        this.imageCache = imageCache;
     }
 
-    /// Выдача уникальных названий и загрузка на диск
+    /// Выдача уникальных названий и загрузка в хранилище изображений
     public List<String> uploadImages(List<MultipartFile> images){
         List<String> uploadedImagesUrls = new ArrayList<>();
 
@@ -37,8 +35,8 @@ public class PostsUtil {
                 // Делаем уникальное имя файлу
                 String uniqueFileName = generateUniqueFileName(image.getOriginalFilename());
 
-                // Кидаем на диск
-                yandexDiskService.upload(image.getInputStream(), "/imagesFolder/" + uniqueFileName);
+                // Кидаем в хранилище
+                blobStore.put(uniqueFileName, image.getInputStream(), image.getSize());
 
                 // Сохраняем уникальное имя
                 uploadedImagesUrls.add(uniqueFileName);
@@ -61,43 +59,25 @@ public class PostsUtil {
         return uniqueFileName;
     }
 
-    /// Получение ссылки на скачивание
-    public String getDownloadLink(String path) throws IOException{
-        return yandexDiskService.download(path);
-    }
-
-    /// Загрузка изображения с Яндекс.Диска и кодирование в Base64
+    /// Загрузка изображения из хранилища и кодирование в Base64
     public String downloadAndEncodeImage(String imageName) throws IOException {
-        // Формируем путь к файлу на Яндекс.Диске
-        String path = "/imagesFolder/" + imageName;
-
-        // Получаем ссылку для скачивания
-        String downloadLink = getDownloadLink(path);
-
-        // Декодируем ссылку
-        String decodedLink = URLDecoder.decode(downloadLink, StandardCharsets.UTF_8);
-
-        // Загружаем файл по ссылке
-        byte[] imageBytes = downloadFile(decodedLink);
-
-        // Кодируем изображение в Base64
-        return Base64.getEncoder().encodeToString(imageBytes);
+        return Base64.getEncoder().encodeToString(imageCache.read(imageName));
     }
 
-    /// Скачивание файла
-    public byte[] downloadFile(String downloadLink) throws IOException {
-        ResponseEntity<byte[]> response = restTemplate.getForEntity(downloadLink, byte[].class);
+    /// Изображение для отдачи потоком (без кодирования в Base64)
+    public Resource loadImage(String imageName) throws IOException {
+        return imageCache.resource(imageName);
+    }
 
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            log.warn("Ошибка при скачивании файла по ссылке: {}", response.getStatusCode());
-            throw new IOException("Ошибка скачивания файла: " + response.getStatusCode());
-        }
-        return response.getBody();
+    /// Фоновая подготовка чтения изображений страницы (ссылки на скачивание и т.п.)
+    public void prefetchImages(List<String> imageNames) {
+        imageCache.prefetch(imageNames);
     }
 
-    /// Удаление файла с Яндекс.Диска
-    public void deleteFile(String path) throws IOException {
-        yandexDiskService.deleteFile(path);
-        log.debug("Файл {} удален с диска", path);
+    /// Удаление изображения из хранилища
+    public void deleteImage(String imageName) throws IOException {
+        blobStore.delete(imageName);
+        imageCache.invalidate(imageName);
+        log.debug("Изображение {} удалено из хранилища", imageName);
     }
 }
@@ -0,0 +1,179 @@
+package ru.nand.postsuserservice.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Локальная заглушка REST API Яндекс.Диска для тестов без сети (yandex.api.url = getBaseUrl()).
+/// Поддерживает используемые YandexDiskService методы: ссылки на скачивание и загрузку, создание папки и удаление файла.
+/// Файлы хранятся в памяти, ссылки на скачивание истекают через hrefTtlSeconds (410), как и настоящие.
+/// Счетчики запросов позволяют проверить, сколько раз сервис обращался к API за ссылками
+@Slf4j
+public class YandexDiskApiStub implements AutoCloseable {
+    private static final String RESOURCES = "/v1/disk/resources";
+
+    private record IssuedHref(String path, long expiresAtNanos) {
+    }
+
+    private final HttpServer server;
+    private final String baseUrl;
+    private final long hrefTtlNanos;
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final Map<String, IssuedHref> downloadHrefs = new ConcurrentHashMap<>();
+    private final Map<String, String> uploadHrefs = new ConcurrentHashMap<>();
+
+    private final AtomicLong downloadLinkRequests = new AtomicLong();
+    private final AtomicLong fileDownloads = new AtomicLong();
+
+    /// port = 0 - свободный порт
+    public YandexDiskApiStub(int port, long hrefTtlSeconds) throws IOException {
+        this.hrefTtlNanos = Duration.ofSeconds(hrefTtlSeconds).toNanos();
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext(RESOURCES, this::handleResources);
+        this.server.createContext("/stub/download/", this::handleDownload);
+        this.server.createContext("/stub/upload/", this::handleUpload);
+        this.server.start();
+
+        this.baseUrl = "http://localhost:" + server.getAddress().getPort();
+        log.debug("Запущена заглушка API Яндекс.Диска на {}", baseUrl);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /// Число запросов ссылки на скачивание (GET /v1/disk/resources/download)
+    public long getDownloadLinkRequests() {
+        return downloadLinkRequests.get();
+    }
+
+    /// Число скачиваний файлов по выданным ссылкам
+    public long getFileDownloads() {
+        return fileDownloads.get();
+    }
+
+    /// Принудительное истечение всех выданных ссылок на скачивание
+    public void expireDownloadHrefs() {
+        downloadHrefs.replaceAll((id, href) -> new IssuedHref(href.path(), System.nanoTime()));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleResources(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String subPath = exchange.getRequestURI().getPath().substring(RESOURCES.length());
+            String path = queryParam(exchange, "path");
+            String method = exchange.getRequestMethod();
+
+            if (path == null) {
+                send(exchange, 400, "{\"error\":\"FieldValidationError\"}");
+            } else if (subPath.equals("/download") && method.equals("GET")) {
+                downloadLinkRequests.incrementAndGet();
+                if (!files.containsKey(path)) {
+                    send(exchange, 404, "{\"error\":\"DiskNotFoundError\"}");
+                    return;
+                }
+                String id = UUID.randomUUID().toString();
+                downloadHrefs.put(id, new IssuedHref(path, System.nanoTime() + hrefTtlNanos));
+                send(exchange, 200, link(baseUrl + "/stub/download/" + id, "GET"));
+            } else if (subPath.equals("/upload") && method.equals("GET")) {
+                String id = UUID.randomUUID().toString();
+                uploadHrefs.put(id, path);
+                send(exchange, 200, link(baseUrl + "/stub/upload/" + id, "PUT"));
+            } else if (subPath.isEmpty() && method.equals("PUT")) {
+                send(exchange, 201, link(baseUrl + RESOURCES + "?path=" + path, "GET"));
+            } else if (subPath.isEmpty() && method.equals("DELETE")) {
+                send(exchange, files.remove(path) != null ? 204 : 404, null);
+            } else {
+                send(exchange, 405, null);
+            }
+        }
+    }
+
+    private void handleDownload(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String id = exchange.getRequestURI().getPath().substring("/stub/download/".length());
+            IssuedHref href = downloadHrefs.get(id);
+
+            if (href == null || href.expiresAtNanos() - System.nanoTime() <= 0) {
+                downloadHrefs.remove(id);
+                send(exchange, 410, null);
+                return;
+            }
+
+            byte[] content = files.get(href.path());
+            if (content == null) {
+                send(exchange, 404, null);
+                return;
+            }
+
+            fileDownloads.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, content.length == 0 ? -1 : content.length);
+            exchange.getResponseBody().write(content);
+        }
+    }
+
+    private void handleUpload(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String id = exchange.getRequestURI().getPath().substring("/stub/upload/".length());
+            String path = uploadHrefs.remove(id);
+
+            if (path == null || !exchange.getRequestMethod().equals("PUT")) {
+                send(exchange, 404, null);
+                return;
+            }
+
+            files.put(path, exchange.getRequestBody().readAllBytes());
+            send(exchange, 201, null);
+        }
+    }
+
+    private String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private String link(String href, String method) {
+        return "{\"href\":\"" + href + "\",\"method\":\"" + method + "\",\"templated\":false}";
+    }
+
+    private void send(HttpExchange exchange, int status, String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
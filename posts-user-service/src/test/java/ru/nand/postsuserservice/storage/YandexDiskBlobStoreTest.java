@@ -0,0 +1,83 @@
+package ru.nand.postsuserservice.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import ru.nand.postsuserservice.services.YandexDiskService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.NoSuchFileException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/// Чтение изображений через кэш ссылок на скачивание против локальной заглушки API Яндекс.Диска
+class YandexDiskBlobStoreTest {
+    private static final byte[] CONTENT = {1, 2, 3, 4};
+
+    private YandexDiskApiStub stub;
+    private YandexDiskBlobStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new YandexDiskApiStub(0, 1800);
+
+        RestTemplate restTemplate = new RestTemplate();
+        YandexDiskService yandexDiskService = new YandexDiskService(restTemplate);
+        ReflectionTestUtils.setField(yandexDiskService, "apiUrl", stub.getBaseUrl());
+        ReflectionTestUtils.setField(yandexDiskService, "token", "test-token");
+
+        store = new YandexDiskBlobStore(yandexDiskService, restTemplate, new SimpleMeterRegistry(), 900, 1000, 4);
+        store.put("image.png", new ByteArrayInputStream(CONTENT), CONTENT.length);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+        stub.close();
+    }
+
+    @Test
+    void warmReadIsSingleRequest() throws Exception {
+        assertThat(store.read("image.png")).isEqualTo(CONTENT);
+        long linkRequests = stub.getDownloadLinkRequests();
+        long downloads = stub.getFileDownloads();
+
+        assertThat(store.read("image.png")).isEqualTo(CONTENT);
+
+        // Ссылка берется из кэша: одно скачивание без обращения к API
+        assertThat(stub.getDownloadLinkRequests()).isEqualTo(linkRequests).isEqualTo(1);
+        assertThat(stub.getFileDownloads()).isEqualTo(downloads + 1);
+    }
+
+    @Test
+    void staleHrefIsResolvedAgainOnce() throws Exception {
+        store.read("image.png");
+        stub.expireDownloadHrefs(); // Следующее скачивание по закэшированной ссылке получит 410
+
+        assertThat(store.read("image.png")).isEqualTo(CONTENT);
+        assertThat(stub.getDownloadLinkRequests()).isEqualTo(2);
+        assertThat(stub.getFileDownloads()).isEqualTo(2);
+
+        // Новая ссылка снова в кэше
+        store.read("image.png");
+        assertThat(stub.getDownloadLinkRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void missingFileIsNotRetried() {
+        assertThatThrownBy(() -> store.read("missing.png")).isInstanceOf(NoSuchFileException.class);
+        assertThat(stub.getDownloadLinkRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void deletedFileIsNotReadFromCachedHref() throws Exception {
+        store.read("image.png");
+        store.delete("image.png");
+
+        assertThatThrownBy(() -> store.read("image.png")).isInstanceOf(NoSuchFileException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.nand.postsuserservice.utils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.nand.postsuserservice.services.CheckSessionClient;
+import ru.nand.postsuserservice.services.RevokedTokensService;
+import ru.nand.postsuserservice.services.TokenRefreshGrpcClient;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/// Фильтр разбирает токен один раз на запрос (дважды - только после обновления истекшего токена),
+/// а ключи и парсер JwtUtil собираются один раз при старте, а не на каждый запрос
+class JwtRequestFilterTest {
+    private static final String SECRET = "test-secret-key-test-secret-key-test-secret-key-0123456789";
+    private static final int REQUESTS = 3;
+
+    private JwtUtil jwtUtil;
+    private TokenRefreshGrpcClient tokenRefreshGrpcClient;
+    private JwtRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil target = new JwtUtil();
+        ReflectionTestUtils.setField(target, "secretKey", SECRET);
+        ReflectionTestUtils.setField(target, "serviceSecretKey", SECRET);
+        ReflectionTestUtils.setField(target, "serviceName", "posts-user-service");
+        ReflectionTestUtils.setField(target, "expiration", 60_000L);
+        ReflectionTestUtils.invokeMethod(target, "init");
+        jwtUtil = spy(target);
+
+        tokenRefreshGrpcClient = mock(TokenRefreshGrpcClient.class);
+        RevokedTokensService revokedTokensService = mock(RevokedTokensService.class);
+        when(revokedTokensService.isReady()).thenReturn(true);
+        when(revokedTokensService.isRevoked(anyString())).thenReturn(false);
+
+        filter = new JwtRequestFilter(jwtUtil, tokenRefreshGrpcClient, mock(CheckSessionClient.class), revokedTokensService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenIsParsedOncePerRequest() throws Exception {
+        String token = userToken(System.currentTimeMillis() + 60_000);
+
+        try (MockedStatic<Jwts> jwts = mockStatic(Jwts.class, CALLS_REAL_METHODS);
+             MockedStatic<Keys> keys = mockStatic(Keys.class, CALLS_REAL_METHODS)) {
+            for (int i = 0; i < REQUESTS; i++) {
+                SecurityContextHolder.clearContext();
+                filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+                assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("user");
+            }
+
+            // Парсер и ключи не пересобираются на запрос
+            jwts.verify(Jwts::parserBuilder, never());
+            keys.verify(() -> Keys.hmacShaKeyFor(any()), never());
+        }
+
+        verify(jwtUtil, times(REQUESTS)).parseToken(token);
+        verify(jwtUtil, never()).validateToken(anyString());
+        verify(jwtUtil, never()).validateExpirationToken(anyString());
+        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).extractRole(anyString());
+    }
+
+    @Test
+    void expiredTokenIsParsedAgainOnlyAfterRefresh() throws Exception {
+        String expiredToken = userToken(System.currentTimeMillis() - 60_000);
+        String refreshedToken = userToken(System.currentTimeMillis() + 60_000);
+        when(tokenRefreshGrpcClient.refreshToken(expiredToken)).thenReturn(refreshedToken);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(expiredToken), response, new MockFilterChain());
+
+        verify(jwtUtil, times(1)).parseToken(expiredToken);
+        verify(jwtUtil, times(1)).parseToken(refreshedToken);
+        assertThat(response.getHeader("Authorization")).isEqualTo("Bearer " + refreshedToken);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("user");
+    }
+
+    private String userToken(long expiresAt) {
+        return Jwts.builder()
+                .setClaims(Map.of("role", "ROLE_USER"))
+                .setSubject("user")
+                .setIssuedAt(new Date(expiresAt - 120_000))
+                .setExpiration(new Date(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    private MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -23,6 +23,14 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // Сериализуем ключ как строку
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // Сериализуем значение как строку
 
+        // Идемпотентный продюсер: повторы при сбоях не дублируют сообщения в партиции
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        // OutboxRelay отправляет порциями, поэтому пакеты крупнее и сжимаются
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -32,4 +32,22 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    // Изменения статусов сессий для согласования кэшей между репликами registry-service
+    @Bean
+    public NewTopic sessionEventsTopic(){
+        return TopicBuilder.name("session-events-topic")
+                .partitions(3)
+                .replicas(3)
+                .build();
+    }
+
+    // События о новых постах (ключ - id автора), рассылку подписчикам выполняет notifications-service
+    @Bean
+    public NewTopic postCreatedTopic(){
+        return TopicBuilder.name("post-created-topic")
+                .partitions(3)
+                .replicas(3)
+                .build();
+    }
+
 }
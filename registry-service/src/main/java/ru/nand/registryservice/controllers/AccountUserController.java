@@ -6,11 +6,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.nand.registryservice.entities.DTO.ResolvedUserDTO;
 import ru.nand.registryservice.entities.DTO.UserDTO;
 import ru.nand.registryservice.services.UserService;
 import ru.nand.registryservice.entities.DTO.AccountUserService.AccountPatchDTO;
+import ru.nand.registryservice.entities.DTO.AccountUserService.FollowsPageDTO;
+import ru.nand.registryservice.entities.DTO.NotificationsService.FollowerEmailsPageDTO;
 
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -35,30 +39,48 @@ public class AccountUserController {
         }
     }
 
-    /// Получение username'ов подписчиков пользователя
+    /// Получение страницы username'ов подписчиков пользователя (cursor - nextCursor предыдущей страницы)
     @GetMapping("/{username}/followers")
-    public ResponseEntity<List<String>> getFollowers(@PathVariable String username) {
+    public ResponseEntity<FollowsPageDTO> getFollowers(@PathVariable String username,
+                                                       @RequestParam(defaultValue = "0") int cursor,
+                                                       @RequestParam(defaultValue = "50") int limit) {
         try {
             log.info("Запрос от account-user-service на получение подписчиков пользователя {}", username);
-            return ResponseEntity.ok(userService.getFollowers(username));
+            return ResponseEntity.ok(userService.getFollowers(username, cursor, limit));
         } catch (Exception e) {
             log.error("Ошибка получения подписчиков пользователя {}: {}", username, e.getMessage());
             return ResponseEntity.status(404).body(null);
         }
     }
 
-    /// Получение списка username'ов подписок пользователя
+    /// Получение страницы username'ов подписок пользователя (cursor - nextCursor предыдущей страницы)
     @GetMapping("/{username}/following")
-    public ResponseEntity<List<String>> getFollowing(@PathVariable String username) {
+    public ResponseEntity<FollowsPageDTO> getFollowing(@PathVariable String username,
+                                                       @RequestParam(defaultValue = "0") int cursor,
+                                                       @RequestParam(defaultValue = "50") int limit) {
         try {
             log.info("Запрос от account-user-service на получение подписок пользователя {}", username);
-            return ResponseEntity.ok(userService.getFollowing(username));
+            return ResponseEntity.ok(userService.getFollowing(username, cursor, limit));
         } catch (Exception e) {
             log.error("Ошибка получения подписок пользователя {}: {}", username, e.getMessage());
             return ResponseEntity.status(404).body(null);
         }
     }
 
+    /// Страница почт подписчиков пользователя для рассылки уведомлений в notifications-service
+    @GetMapping("/{userId}/follower-emails")
+    public ResponseEntity<FollowerEmailsPageDTO> getFollowerEmails(@PathVariable int userId,
+                                                                   @RequestParam(defaultValue = "0") int cursor,
+                                                                   @RequestParam(defaultValue = "500") int limit) {
+        try {
+            log.debug("Запрос от notifications-service на получение почт подписчиков пользователя {}", userId);
+            return ResponseEntity.ok(userService.getFollowerEmails(userId, cursor, limit));
+        } catch (Exception e) {
+            log.error("Ошибка получения почт подписчиков пользователя {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(404).body(null);
+        }
+    }
+
     /// Подписка пользователя current на пользователя target (возвращаем почту пользователя target)
     @PostMapping("/{currentUsername}/follow/{targetUsername}")
     public ResponseEntity<String> followUser(@PathVariable String currentUsername, @PathVariable String targetUsername) {
@@ -147,6 +169,19 @@ public class AccountUserController {
         }
     }
 
+    /// Пакетное получение пользователей по списку id (одним запросом к БД)
+    /// Вернет только найденных пользователей, отсутствие id в ответе означает, что пользователя нет
+    @PostMapping("/resolve")
+    public ResponseEntity<List<ResolvedUserDTO>> resolveUsers(@RequestBody Set<Integer> usersIds){
+        try{
+            log.info("Запрос на пакетное получение {} пользователей", usersIds.size());
+            return ResponseEntity.ok(userService.resolveUsers(usersIds));
+        } catch (Exception e){
+            log.error("Ошибка пакетного получения пользователей: {}", e.getMessage());
+            return ResponseEntity.status(400).body(null);
+        }
+    }
+
     /// Проверка на существование пользователей с переданным сетом id
     /// В случае существования всех пользователей вернет их почты
     @PostMapping("/find-users")
@@ -174,10 +209,10 @@ public class AccountUserController {
 
     /// Получение N аккаунтов с наибольшим количеством подписчиков (количество упорядочено от большего к меньшему)
     @GetMapping("/popular-accounts/{accountsCount}")
-    public ResponseEntity<String> getPopularAccounts(@PathVariable int accountsCount){
+    public ResponseEntity<String> getPopularAccounts(@PathVariable int accountsCount, @RequestParam(defaultValue = "0") int page){
         try{
-            log.info("Запрос от analytics-service на получение популярных аккаунтов");
-            return ResponseEntity.status(200).body(userService.getPopularAccounts(accountsCount));
+            log.info("Запрос от analytics-service на получение популярных аккаунтов, страница {}", page);
+            return ResponseEntity.status(200).body(userService.getPopularAccounts(accountsCount, page));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body("Аккаунты не найдены");
@@ -4,11 +4,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.nand.registryservice.entities.DTO.PostsUserService.CommentDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.CommentsPageDTO;
 import ru.nand.registryservice.services.CommentService;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping("/api/posts")
@@ -64,12 +62,14 @@ public class PostsCommentsUserController {
         }
     }
 
-    /// Получение всех комментариев поста
+    /// Получение страницы комментариев поста (cursor - nextCursor предыдущей страницы)
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<CommentDTO>> getPostComments(@PathVariable int postId){
+    public ResponseEntity<CommentsPageDTO> getPostComments(@PathVariable int postId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int limit){
         try{
             log.info("Запрос от posts-user-service на получение комментариев поста с id {}", postId);
-            return ResponseEntity.status(200).body(commentService.getPostComments(postId));
+            return ResponseEntity.status(200).body(commentService.getPostComments(postId, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
@@ -4,11 +4,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.nand.registryservice.entities.DTO.UserDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.LikedUsersPageDTO;
 import ru.nand.registryservice.services.LikeService;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping("/api/posts")
@@ -44,12 +42,14 @@ public class PostsLikesUserController {
         }
     }
 
-    /// Получение списка пользователей, лайкнувших пост
+    /// Получение страницы пользователей, лайкнувших пост (cursor - id последнего пользователя предыдущей страницы)
     @GetMapping("/{postId}/likes")
-    public ResponseEntity<List<UserDTO>> getLikedUsers(@PathVariable int postId){
+    public ResponseEntity<LikedUsersPageDTO> getLikedUsers(@PathVariable int postId,
+                                                           @RequestParam(defaultValue = "0") int cursor,
+                                                           @RequestParam(defaultValue = "50") int limit){
         try{
             log.info("Запрос от posts-user-service на получение списка пользователей, лайкнувших пост с id {}", postId);
-            return ResponseEntity.status(200).body(likeService.getLikedUsers(postId));
+            return ResponseEntity.status(200).body(likeService.getLikedUsers(postId, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
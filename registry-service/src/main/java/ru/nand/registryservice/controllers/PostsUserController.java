@@ -4,7 +4,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.nand.registryservice.entities.DTO.PostsUserService.PostDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostsPageDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.TagCountDTO;
 import ru.nand.registryservice.services.PostService;
 
 import java.util.List;
@@ -70,60 +71,82 @@ public class PostsUserController {
         }
     }
 
-    /// Получение всех постов (лента)
+    /// Получение страницы всех постов (лента), cursor - nextCursor предыдущей страницы
     @GetMapping
-    public ResponseEntity<List<PostDTO>> getAllPosts(){
+    public ResponseEntity<PostsPageDTO> getAllPosts(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit){
         try{
             log.info("Запрос от posts-user-service на получение всех постов");
-            return ResponseEntity.status(200).body(postService.getAllPosts());
+            return ResponseEntity.status(200).body(postService.getAllPosts(cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
         }
     }
 
-    /// Получение постов конкретного пользователя
+    /// Получение страницы постов конкретного пользователя
     @GetMapping("/user/{authorUsername}")
-    public ResponseEntity<List<PostDTO>> getPostsByAuthor(@PathVariable String authorUsername){
+    public ResponseEntity<PostsPageDTO> getPostsByAuthor(@PathVariable String authorUsername,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit){
         try{
             log.info("Запрос от posts-user-service на получение постов автора: {}", authorUsername);
-            return ResponseEntity.status(200).body(postService.getPostsByAuthor(authorUsername));
+            return ResponseEntity.status(200).body(postService.getPostsByAuthor(authorUsername, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
         }
     }
 
-    /// Получение постов подписок
+    /// Получение страницы постов подписок
     @GetMapping("/subscriptions")
-    public ResponseEntity<List<PostDTO>> getSubscriptionsPosts(@RequestParam String username){
+    public ResponseEntity<PostsPageDTO> getSubscriptionsPosts(@RequestParam String username,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit){
         try{
             log.info("Запрос от posts-user-service на получение постов подписок пользователя {}", username);
-            return ResponseEntity.status(200).body(postService.getSubscriptionsPosts(username));
+            return ResponseEntity.status(200).body(postService.getSubscriptionsPosts(username, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
         }
     }
 
-    /// Получение постов по тэгам
+    /// Получение страницы постов по тэгам (mode = and - все тэги, or - хотя бы один)
     @GetMapping("/search-by-tags")
-    public ResponseEntity<List<PostDTO>> getPostsByTags(@RequestParam List<String> tags){
+    public ResponseEntity<PostsPageDTO> getPostsByTags(@RequestParam List<String> tags,
+                                                       @RequestParam(defaultValue = "and") String mode,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit){
         try {
-            log.info("Запрос от posts-user-service на получение постов по тэгам {}", tags);
-            return ResponseEntity.status(200).body(postService.getPostsByTags(tags));
+            log.info("Запрос от posts-user-service на получение постов по тэгам {}, режим {}", tags, mode);
+            return ResponseEntity.status(200).body(postService.getPostsByTags(tags, mode, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
         }
     }
 
-    /// Получение постов по тексту
+    /// Получение N самых популярных тэгов (по убыванию числа постов)
+    @GetMapping("/popular-tags/{tagsCount}")
+    public ResponseEntity<List<TagCountDTO>> getPopularTags(@PathVariable int tagsCount){
+        try {
+            log.info("Запрос от posts-user-service на получение {} популярных тэгов", tagsCount);
+            return ResponseEntity.status(200).body(postService.getPopularTags(tagsCount));
+        } catch (Exception e){
+            log.error(e.getMessage());
+            return ResponseEntity.status(404).body(null);
+        }
+    }
+
+    /// Получение страницы постов по тексту
     @GetMapping("/search-by-text")
-    public ResponseEntity<List<PostDTO>> getPostsByText(@RequestParam String text){
+    public ResponseEntity<PostsPageDTO> getPostsByText(@RequestParam String text,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit){
         try{
             log.info("Запрос от posts-user-service на получение постов по тексту: {}", text);
-            return ResponseEntity.status(200).body(postService.getPostsByText(text));
+            return ResponseEntity.status(200).body(postService.getPostsByText(text, cursor, limit));
         } catch (Exception e){
             log.error(e.getMessage());
             return ResponseEntity.status(404).body(null);
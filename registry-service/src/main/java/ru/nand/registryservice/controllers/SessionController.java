@@ -7,10 +7,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import ru.nand.registryservice.entities.ENUMS.STATUS;
-import ru.nand.registryservice.entities.UserSession;
+import ru.nand.registryservice.entities.DTO.RevokedTokenDTO;
 import ru.nand.registryservice.services.UserSessionService;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/session")
@@ -30,11 +31,8 @@ public class SessionController {
                 accessToken = accessToken.substring(7);
             }
 
-            // Поиск сессии по access токену
-            UserSession session = userSessionService.getSessionByAccessToken(accessToken);
-
-            // Проверка статуса
-            boolean isActive = session.getStatus() == STATUS.ACTIVE;
+            // Проверка статуса сессии по access токену (через кэш статусов)
+            boolean isActive = userSessionService.isSessionActive(accessToken);
             if (isActive) {
                 log.info("Сессия активна");
             } else {
@@ -47,4 +45,16 @@ public class SessionController {
             return ResponseEntity.status(500).body(false);
         }
     }
+
+    /// Снимок списка отзыва: хэши access токенов неактивных сессий, которые еще не истекли
+    @GetMapping("/revoked")
+    public ResponseEntity<List<RevokedTokenDTO>> getRevokedTokens() {
+        log.info("Пришел запрос на получение списка отозванных токенов");
+        try {
+            return ResponseEntity.status(200).body(userSessionService.getRevokedTokens());
+        } catch (Exception e) {
+            log.error("Ошибка при получении списка отозванных токенов: {}", e.getMessage());
+            return ResponseEntity.status(500).body(null);
+        }
+    }
 }
@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        // Страницы комментариев поста читаются по курсору (date_of_creation, id)
+        @Index(name = "ix_comments_post_date_id", columnList = "post_id, date_of_creation, id")
+})
 public class Comment {
 
     @Id
@@ -0,0 +1,23 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/// Отметка о завершенной стартовой миграции данных: по ней миграция не повторяется при следующих запусках
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "completed_migrations")
+public class CompletedMigration {
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,16 @@
+package ru.nand.registryservice.entities.DTO.AccountUserService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowUserDTO {
+    private int id;
+
+    private String username;
+}
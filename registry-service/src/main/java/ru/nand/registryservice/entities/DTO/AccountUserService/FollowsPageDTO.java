@@ -0,0 +1,19 @@
+package ru.nand.registryservice.entities.DTO.AccountUserService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowsPageDTO {
+
+    private List<String> usernames;
+
+    private Integer nextCursor; // Курсор следующей страницы, null - страниц больше нет
+}
@@ -0,0 +1,16 @@
+package ru.nand.registryservice.entities.DTO.NotificationsService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowerEmailDTO {
+    private int id;
+
+    private String email;
+}
@@ -0,0 +1,19 @@
+package ru.nand.registryservice.entities.DTO.NotificationsService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowerEmailsPageDTO {
+
+    private List<String> emails;
+
+    private Integer nextCursor; // Курсор следующей страницы, null - страниц больше нет
+}
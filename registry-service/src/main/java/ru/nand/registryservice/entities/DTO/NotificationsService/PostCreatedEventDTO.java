@@ -0,0 +1,19 @@
+package ru.nand.registryservice.entities.DTO.NotificationsService;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/// Событие post-created-topic: одно сообщение на пост, рассылку подписчикам выполняет notifications-service
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostCreatedEventDTO {
+    private int authorId;
+
+    private String authorUsername;
+
+    private int postId;
+}
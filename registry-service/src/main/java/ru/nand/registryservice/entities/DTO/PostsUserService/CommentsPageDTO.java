@@ -0,0 +1,19 @@
+package ru.nand.registryservice.entities.DTO.PostsUserService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentsPageDTO {
+
+    private List<CommentDTO> comments;
+
+    private String nextCursor; // Курсор следующей страницы, null - страниц больше нет
+}
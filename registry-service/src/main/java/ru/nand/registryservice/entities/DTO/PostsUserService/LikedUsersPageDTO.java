@@ -0,0 +1,20 @@
+package ru.nand.registryservice.entities.DTO.PostsUserService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.nand.registryservice.entities.DTO.UserDTO;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LikedUsersPageDTO {
+
+    private List<UserDTO> users;
+
+    private Integer nextCursor; // Курсор следующей страницы, null - страниц больше нет
+}
@@ -0,0 +1,17 @@
+package ru.nand.registryservice.entities.DTO.PostsUserService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/// Значение коллекции поста (тэг или имя файла) для пакетной загрузки по странице
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostAttributeDTO {
+    private int postId;
+
+    private String value;
+}
@@ -0,0 +1,6 @@
+package ru.nand.registryservice.entities.DTO.PostsUserService;
+
+/// Строка результата полнотекстового поиска с релевантностью
+public interface PostSearchSummary extends PostSummary {
+    float getRank();
+}
@@ -0,0 +1,18 @@
+package ru.nand.registryservice.entities.DTO.PostsUserService;
+
+import java.time.LocalDateTime;
+
+/// Строка страницы постов: поля поста, автор и счетчики лайков/комментариев одним запросом
+public interface PostSummary {
+    int getId();
+
+    String getOwnerUsername();
+
+    String getText();
+
+    LocalDateTime getDateOfPublication();
+
+    long getLikes();
+
+    long getComments();
+}
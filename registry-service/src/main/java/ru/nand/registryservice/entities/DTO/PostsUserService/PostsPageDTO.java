@@ -0,0 +1,19 @@
+package ru.nand.registryservice.entities.DTO.PostsUserService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostsPageDTO {
+
+    private List<PostDTO> posts;
+
+    private String nextCursor; // Курсор следующей страницы, null - страниц больше нет
+}
@@ -0,0 +1,16 @@
+package ru.nand.registryservice.entities.DTO.PostsUserService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TagCountDTO {
+    private String name;
+
+    private int postsCount;
+}
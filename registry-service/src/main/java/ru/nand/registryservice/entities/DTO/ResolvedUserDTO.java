@@ -0,0 +1,25 @@
+package ru.nand.registryservice.entities.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/// Пользователь из пакетного запроса /api/users/resolve (для проверок существования в сервисах чатов)
+@Data
+@NoArgsConstructor
+public class ResolvedUserDTO {
+    private int id;
+
+    private String username;
+
+    private String email;
+
+    private boolean blocked;
+
+    // is_blocked допускает null, для JPQL проекции он приводится к false
+    public ResolvedUserDTO(int id, String username, String email, Boolean blocked) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.blocked = Boolean.TRUE.equals(blocked);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.nand.registryservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RevokedTokenDTO {
+    private String tokenHash; // SHA-256 access токена неактивной сессии
+    private LocalDateTime accessTokenExpires; // После этого момента токен отсекается по exp, хранить его не нужно
+}
@@ -0,0 +1,22 @@
+package ru.nand.registryservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.nand.registryservice.entities.ENUMS.STATUS;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SessionEventDTO {
+    private String tokenHash; // SHA-256 access токена сессии
+    private int userId;
+    private STATUS status; // null - токен больше не принадлежит сессии, запись нужно удалить из кэша
+    private LocalDateTime accessTokenExpires;
+
+    private String instanceId; // Реплика registry-service, отправившая событие
+}
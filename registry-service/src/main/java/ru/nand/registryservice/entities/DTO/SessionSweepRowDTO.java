@@ -0,0 +1,23 @@
+package ru.nand.registryservice.entities.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/// Сессия из порции массовой обработки: только поля, нужные для обновления кэша и событий
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionSweepRowDTO {
+    private Long id;
+
+    private Integer userId;
+
+    private String accessTokenHash;
+
+    private LocalDateTime accessTokenExpires;
+}
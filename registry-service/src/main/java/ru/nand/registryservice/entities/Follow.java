@@ -0,0 +1,26 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/// Ребро графа подписок: follower подписан на followee.
+/// Индексы в обе стороны - для выборки подписок и подписчиков с keyset пагинацией по id второй стороны
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "follows", indexes = {
+        @Index(name = "ix_follows_follower_followee", columnList = "follower_id, followee_id"),
+        @Index(name = "ix_follows_followee_follower", columnList = "followee_id, follower_id")
+})
+public class Follow {
+    @EmbeddedId
+    private FollowId id;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
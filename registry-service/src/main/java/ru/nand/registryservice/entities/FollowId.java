@@ -0,0 +1,21 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowId implements Serializable {
+    @Column(name = "follower_id")
+    private int followerId; // Кто подписан
+
+    @Column(name = "followee_id")
+    private int followeeId; // На кого подписан
+}
@@ -16,7 +16,11 @@ import java.util.Set;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        // Страницы лент читаются по курсору (date_of_publication, id) без сортировки всей выборки
+        @Index(name = "ix_posts_date_id", columnList = "date_of_publication DESC, id DESC"),
+        @Index(name = "ix_posts_user_date_id", columnList = "user_id, date_of_publication DESC, id DESC")
+})
 public class Post {
 
     @Id
@@ -50,9 +54,17 @@ public class Post {
     )
     private Set<User> likes;
 
+    // Меняется только атомарными UPDATE (LikesCounterService)
+    @Column(name = "likes_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int likesCount;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Comment> comments = new HashSet<>();
 
+    // Меняется только атомарными UPDATE при добавлении и удалении комментариев
+    @Column(name = "comment_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int commentsCount;
+
     @ElementCollection
     @CollectionTable(name = "post_files", joinColumns = @JoinColumn(name = "post_id"))
     @Column(name = "filename")
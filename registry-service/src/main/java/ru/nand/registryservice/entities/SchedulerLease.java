@@ -0,0 +1,26 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/// Аренда периодической задачи: задачу выполняет только реплика, захватившая аренду до locked_until
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "owner", nullable = false)
+    private String owner; // Идентификатор реплики
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+}
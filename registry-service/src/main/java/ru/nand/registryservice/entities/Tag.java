@@ -0,0 +1,28 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/// Тэг нормализованного словаря (без пробелов по краям, в нижнем регистре) со счетчиком постов
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "tags", indexes = {
+        @Index(name = "ix_tags_posts_count_id", columnList = "posts_count DESC, id")
+})
+public class Tag {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private int id;
+
+    @Column(name = "name", nullable = false, unique = true)
+    private String name;
+
+    // Меняется только атомарными UPDATE из TagRepository
+    @Column(name = "posts_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int postsCount;
+}
@@ -0,0 +1,26 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/// Запись инвертированного индекса тэгов: пост postId помечен тэгом tagId.
+/// Дата публикации продублирована, чтобы список постов тэга читался по индексу в порядке (date_of_publication, post_id) DESC,
+/// первичный ключ (post_id, tag_id) обслуживает выборки по посту
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "tag_postings", indexes = {
+        @Index(name = "ix_tag_postings_tag_date_post", columnList = "tag_id, date_of_publication DESC, post_id DESC")
+})
+public class TagPosting {
+    @EmbeddedId
+    private TagPostingId id;
+
+    @Column(name = "date_of_publication")
+    private LocalDateTime dateOfPublication;
+}
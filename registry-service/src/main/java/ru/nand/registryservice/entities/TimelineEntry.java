@@ -0,0 +1,20 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/// Запись предрассчитанной ленты подписок: пост postId попал в ленту пользователя userId при публикации (fan-out on write).
+/// id постов монотонно растут, поэтому лента читается диапазоном по (user_id, post_id DESC)
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "timeline_entries", indexes = {
+        @Index(name = "ix_timeline_entries_user_post", columnList = "user_id, post_id DESC")
+})
+public class TimelineEntry {
+    @EmbeddedId
+    private TimelineEntryId id;
+}
@@ -0,0 +1,21 @@
+package ru.nand.registryservice.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimelineEntryId implements Serializable {
+    @Column(name = "user_id")
+    private int userId; // Владелец ленты
+
+    @Column(name = "post_id")
+    private int postId;
+}
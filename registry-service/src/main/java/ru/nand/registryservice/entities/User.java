@@ -16,7 +16,10 @@ import java.util.*;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Топ аккаунтов по подписчикам читается по индексу, без сортировки всей таблицы
+        @Index(name = "ix_users_subscribers_count_id", columnList = "subscribers_count DESC, id")
+})
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -43,21 +46,21 @@ public class User implements UserDetails {
     @Column(name = "registration_date")
     private LocalDateTime registrationDate;
 
-    @ManyToMany
-    @JoinTable(
-            name = "user_subscribers",
-            joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "subscriber_id")
-    )
-    private Set<User> subscribers = new HashSet<>();
-
-    @ManyToMany
-    @JoinTable(
-            name = "user_subscriptions",
-            joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "subscription_id")
-    )
-    private Set<User> subscriptions = new HashSet<>();
+    /// Счетчики поддерживаются атомарными UPDATE из UserRepository (сущность их не пишет),
+    /// расхождения исправляет UserCountersReconciliation
+    @Column(name = "subscribers_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int subscribersCount;
+
+    @Column(name = "subscriptions_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int subscriptionsCount;
+
+    @Column(name = "posts_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int postsCount;
+
+    /// В лентах подписчиков есть не все посты автора (он был выше порога "знаменитости"), поэтому они подмешиваются при чтении.
+    /// Устанавливается TimelineService, снимается после дозаполнения лент, когда автор опустился ниже порога
+    @Column(name = "timeline_pull", insertable = false, updatable = false, columnDefinition = "boolean not null default false")
+    private boolean timelinePull;
 
     @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Post> posts;
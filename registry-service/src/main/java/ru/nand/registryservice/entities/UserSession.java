@@ -3,6 +3,7 @@ package ru.nand.registryservice.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import ru.nand.registryservice.entities.ENUMS.STATUS;
+import ru.nand.registryservice.utils.TokenHashUtil;
 
 import java.time.LocalDateTime;
 
@@ -12,7 +13,12 @@ import java.time.LocalDateTime;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        @Index(name = "ux_sessions_access_token_hash", columnList = "access_token_hash", unique = true),
+        @Index(name = "ux_sessions_refresh_token_hash", columnList = "refresh_token_hash", unique = true),
+        // Периодические переводы статусов выбирают сессии по (status, last_activity_time)
+        @Index(name = "ix_sessions_status_last_activity", columnList = "status, last_activity_time")
+})
 public class UserSession {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +31,13 @@ public class UserSession {
     @Column(name = "refresh_token", columnDefinition = "TEXT")
     private String refreshToken;
 
+    // SHA-256 от access/refresh токена, по ним идет поиск сессии (см. TokenHashUtil)
+    @Column(name = "access_token_hash", length = 64)
+    private String accessTokenHash;
+
+    @Column(name = "refresh_token_hash", length = 64)
+    private String refreshTokenHash;
+
     private LocalDateTime accessTokenExpires;
 
     private LocalDateTime refreshTokenExpires;
@@ -40,4 +53,12 @@ public class UserSession {
     @JoinColumn(name = "user_id")
     private User user;
 
+    /// Пересчет хэшей при любом изменении токенов (в т.ч. через builder и сеттеры)
+    @PrePersist
+    @PreUpdate
+    private void computeTokenHashes() {
+        this.accessTokenHash = TokenHashUtil.sha256Hex(accessToken);
+        this.refreshTokenHash = TokenHashUtil.sha256Hex(refreshToken);
+    }
+
 }
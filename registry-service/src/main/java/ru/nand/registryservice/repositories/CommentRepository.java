@@ -3,9 +3,13 @@ package ru.nand.registryservice.repositories;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.nand.registryservice.entities.Comment;
+import ru.nand.registryservice.entities.DTO.PostsUserService.CommentDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +17,12 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
     List<Comment> findByPostId(int postId);
 
+    /// Страница комментариев поста после курсора в порядке (date_of_creation, id) одним запросом с автором
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.PostsUserService.CommentDTO(c.id, c.post.id, a.username, c.text, c.dateOfCreation) " +
+            "FROM Comment c JOIN c.author a WHERE c.post.id = :postId " +
+            "AND (c.dateOfCreation > :cursorDate OR (c.dateOfCreation = :cursorDate AND c.id > :cursorId)) " +
+            "ORDER BY c.dateOfCreation, c.id")
+    List<CommentDTO> findPage(@Param("postId") int postId, @Param("cursorDate") LocalDateTime cursorDate,
+                              @Param("cursorId") int cursorId, Pageable pageable);
+
 }
@@ -0,0 +1,19 @@
+package ru.nand.registryservice.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.CompletedMigration;
+
+@Repository
+public interface CompletedMigrationRepository extends JpaRepository<CompletedMigration, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO completed_migrations (name, completed_at) VALUES (:name, now()) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void markCompleted(@Param("name") String name);
+}
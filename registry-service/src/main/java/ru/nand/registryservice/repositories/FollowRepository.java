@@ -0,0 +1,58 @@
+package ru.nand.registryservice.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.nand.registryservice.entities.DTO.AccountUserService.FollowUserDTO;
+import ru.nand.registryservice.entities.DTO.NotificationsService.FollowerEmailDTO;
+import ru.nand.registryservice.entities.Follow;
+import ru.nand.registryservice.entities.FollowId;
+
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, FollowId> {
+
+    /// Идемпотентная подписка (возвращает 1, если ребро создано, 0 - если уже было)
+    @Modifying
+    @Query(value = "INSERT INTO follows (follower_id, followee_id, created_at) VALUES (:followerId, :followeeId, now()) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertFollow(@Param("followerId") int followerId, @Param("followeeId") int followeeId);
+
+    /// Идемпотентная отписка (возвращает 1, если ребро удалено, 0 - если его не было)
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.id.followerId = :followerId AND f.id.followeeId = :followeeId")
+    int deleteFollow(@Param("followerId") int followerId, @Param("followeeId") int followeeId);
+
+    /// Удаление всех ребер пользователя (в обе стороны)
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.id.followerId = :userId OR f.id.followeeId = :userId")
+    int deleteAllByUserId(@Param("userId") int userId);
+
+    /// id подписчиков пользователя с id > cursor (по индексу ix_follows_followee_follower)
+    @Query(value = "SELECT f.follower_id FROM follows f WHERE f.followee_id = :userId AND f.follower_id > :cursor " +
+            "ORDER BY f.follower_id LIMIT :limit",
+            nativeQuery = true)
+    List<Integer> findFollowerIdsPage(@Param("userId") int userId, @Param("cursor") int cursor, @Param("limit") int limit);
+
+    /// Страница подписчиков пользователя с id подписчика > cursor (keyset по ix_follows_followee_follower)
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.AccountUserService.FollowUserDTO(u.id, u.username) " +
+            "FROM Follow f JOIN User u ON u.id = f.id.followerId " +
+            "WHERE f.id.followeeId = :userId AND f.id.followerId > :cursor ORDER BY f.id.followerId")
+    List<FollowUserDTO> findFollowersPage(@Param("userId") int userId, @Param("cursor") int cursor, Pageable pageable);
+
+    /// Страница подписок пользователя с id подписки > cursor (keyset по ix_follows_follower_followee)
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.AccountUserService.FollowUserDTO(u.id, u.username) " +
+            "FROM Follow f JOIN User u ON u.id = f.id.followeeId " +
+            "WHERE f.id.followerId = :userId AND f.id.followeeId > :cursor ORDER BY f.id.followeeId")
+    List<FollowUserDTO> findFollowingPage(@Param("userId") int userId, @Param("cursor") int cursor, Pageable pageable);
+
+    /// Страница почт подписчиков пользователя с id подписчика > cursor (для рассылки в notifications-service)
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.NotificationsService.FollowerEmailDTO(u.id, u.email) " +
+            "FROM Follow f JOIN User u ON u.id = f.id.followerId " +
+            "WHERE f.id.followeeId = :userId AND f.id.followerId > :cursor ORDER BY f.id.followerId")
+    List<FollowerEmailDTO> findFollowerEmailsPage(@Param("userId") int userId, @Param("cursor") int cursor, Pageable pageable);
+}
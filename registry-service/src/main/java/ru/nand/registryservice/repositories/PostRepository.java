@@ -1,13 +1,21 @@
 package ru.nand.registryservice.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostAttributeDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostSearchSummary;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostSummary;
+import ru.nand.registryservice.entities.DTO.UserDTO;
 import ru.nand.registryservice.entities.Post;
 import ru.nand.registryservice.entities.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -16,13 +24,120 @@ public interface PostRepository extends JpaRepository<Post, Integer> {
 
     List<Post> findByAuthor(User user);
 
-    @Query("SELECT p FROM Post p WHERE (SELECT COUNT(t) FROM p.tags t WHERE t IN :tags) = :size") // JPQL
-    List<Post> findByTagsIn(@Param("tags") List<String> tags, @Param("size") int size);
+    /// Общая часть выборки строк страницы постов (автор и счетчики без загрузки коллекций)
+    String SUMMARY_COLUMNS = "SELECT p.id AS id, u.username AS \"ownerUsername\", p.text AS text, p.date_of_publication AS \"dateOfPublication\", " +
+            "p.likes_count AS likes, " +
+            "p.comment_count AS comments ";
 
-    @Query("SELECT p FROM Post p WHERE LOWER(p.text) LIKE LOWER(CONCAT(:text, '%'))")
-    List<Post> findByTextStartingWith(@Param("text") String text);
+    String SUMMARY_FROM = "FROM posts p JOIN users u ON u.id = p.user_id ";
+
+    String SUMMARY_SELECT = SUMMARY_COLUMNS + SUMMARY_FROM;
+
+    String PAGE_ORDER = "ORDER BY p.date_of_publication DESC, p.id DESC LIMIT :limit";
+
+    /// Страница всех постов после курсора в порядке (date_of_publication DESC, id DESC)
+    @Query(value = SUMMARY_SELECT + "WHERE (p.date_of_publication, p.id) < (:cursorDate, :cursorId) " + PAGE_ORDER,
+            nativeQuery = true)
+    List<PostSummary> findPage(@Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") int cursorId, @Param("limit") int limit);
+
+    /// Страница постов автора после курсора
+    @Query(value = SUMMARY_SELECT + "WHERE p.user_id = :authorId AND (p.date_of_publication, p.id) < (:cursorDate, :cursorId) " + PAGE_ORDER,
+            nativeQuery = true)
+    List<PostSummary> findPageByAuthor(@Param("authorId") int authorId, @Param("cursorDate") LocalDateTime cursorDate,
+                                       @Param("cursorId") int cursorId, @Param("limit") int limit);
+
+    /// Полнотекстовый поиск (search_vector + GIN, см. PostSearchMigration) и поиск по подстроке (триграммный индекс).
+    /// Результаты упорядочены по релевантности, совпадения только по подстроке идут после совпадений по словам.
+    /// substringPattern - шаблон LIKE с экранированными \, % и _ (см. PostService.toSubstringPattern)
+    @Query(value = SUMMARY_COLUMNS + ", ts_rank(p.search_vector, q.query) AS rank " + SUMMARY_FROM +
+            "CROSS JOIN (SELECT websearch_to_tsquery('russian', :text) || websearch_to_tsquery('english', :text) AS query) q " +
+            "WHERE (p.search_vector @@ q.query OR LOWER(p.text) LIKE LOWER(:substringPattern) ESCAPE '\\') " +
+            "AND (ts_rank(p.search_vector, q.query), p.id) < (CAST(:cursorRank AS real), :cursorId) " +
+            "ORDER BY rank DESC, p.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<PostSearchSummary> searchByText(@Param("text") String text, @Param("substringPattern") String substringPattern,
+                                         @Param("cursorRank") float cursorRank,
+                                         @Param("cursorId") int cursorId, @Param("limit") int limit);
+
+    /// Строки постов по списку id (порядок не гарантируется)
+    @Query(value = SUMMARY_SELECT + "WHERE p.id IN (:ids)", nativeQuery = true)
+    List<PostSummary> findSummariesByIds(@Param("ids") List<Integer> ids);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.date_of_publication BETWEEN :start AND :end", nativeQuery = true)
+    List<PostSummary> findSummariesByDateOfPublicationBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /// Тэги постов страницы одним запросом
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.PostsUserService.PostAttributeDTO(p.id, t) " +
+            "FROM Post p JOIN p.tags t WHERE p.id IN :ids")
+    List<PostAttributeDTO> findTagsByPostIds(@Param("ids") List<Integer> ids);
+
+    /// Имена файлов постов страницы одним запросом
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.PostsUserService.PostAttributeDTO(p.id, f) " +
+            "FROM Post p JOIN p.filenames f WHERE p.id IN :ids")
+    List<PostAttributeDTO> findFilenamesByPostIds(@Param("ids") List<Integer> ids);
 
     List<Post> findByAuthorIn(Set<User> authors);
 
+    /// id страницы постов авторов, на которых подписан пользователь, с id < beforeId по убыванию id (pull модель ленты)
+    @Query("SELECT p.id FROM Post p WHERE p.author.id IN (SELECT f.id.followeeId FROM Follow f WHERE f.id.followerId = :userId) " +
+            "AND p.id < :beforeId ORDER BY p.id DESC")
+    List<Integer> findIdsByFollower(@Param("userId") int userId, @Param("beforeId") int beforeId, Pageable pageable);
+
     List<Post> findByDateOfPublicationBetween(LocalDateTime start, LocalDateTime end);
+
+    /// Лайк одной строкой post_likes, повторный лайк ничего не меняет (возвращает число добавленных строк)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO post_likes (post_id, user_id) VALUES (:postId, :userId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertLike(@Param("postId") int postId, @Param("userId") int userId);
+
+    /// Снятие лайка (возвращает число удаленных строк)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM post_likes WHERE post_id = :postId AND user_id = :userId", nativeQuery = true)
+    int deleteLike(@Param("postId") int postId, @Param("userId") int userId);
+
+    /// Пересчет счетчика лайков по post_likes для переданных постов (идемпотентен, в отличие от прибавления дельты)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET likes_count = (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id) " +
+            "WHERE p.id IN (:postIds)",
+            nativeQuery = true)
+    int recomputeLikesCount(@Param("postIds") Collection<Integer> postIds);
+
+    /// Страница лайкнувших пост пользователей с id > cursor (по первичному ключу post_likes)
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.UserDTO(u.id, u.username, u.email, u.subscribersCount, u.subscriptionsCount, u.postsCount) " +
+            "FROM Post p JOIN p.likes u WHERE p.id = :postId AND u.id > :cursor ORDER BY u.id")
+    List<UserDTO> findLikedUsersPage(@Param("postId") int postId, @Param("cursor") int cursor, Pageable pageable);
+
+    /// Атомарное изменение счетчика комментариев на delta
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + :delta WHERE p.id = :postId")
+    void addCommentsCount(@Param("postId") int postId, @Param("delta") int delta);
+
+    /// Уменьшение счетчиков комментариев на чужих постах, где комментировал удаляемый пользователь
+    /// (его комментарии удаляются каскадом, минуя addCommentsCount)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET comment_count = p.comment_count - c.n " +
+            "FROM (SELECT cm.post_id, COUNT(*) AS n FROM comments cm WHERE cm.user_id = :userId GROUP BY cm.post_id) c " +
+            "WHERE p.id = c.post_id AND p.user_id <> :userId",
+            nativeQuery = true)
+    int subtractCommentsCountOf(@Param("userId") int userId);
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM posts", nativeQuery = true)
+    int findMaxId();
+
+    /// Пересчет счетчиков лайков и комментариев для постов с id в (fromId, toId] (возвращает число исправленных строк)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET likes_count = c.likes, comment_count = c.comments " +
+            "FROM (SELECT p2.id, " +
+            "(SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p2.id) AS likes, " +
+            "(SELECT COUNT(*) FROM comments cm WHERE cm.post_id = p2.id) AS comments " +
+            "FROM posts p2 WHERE p2.id > :fromId AND p2.id <= :toId) c " +
+            "WHERE p.id = c.id AND (p.likes_count <> c.likes OR p.comment_count <> c.comments)",
+            nativeQuery = true)
+    int reconcileCounters(@Param("fromId") int fromId, @Param("toId") int toId);
 }
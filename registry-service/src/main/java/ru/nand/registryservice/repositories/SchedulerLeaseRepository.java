@@ -0,0 +1,25 @@
+package ru.nand.registryservice.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.SchedulerLease;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /// Захват аренды, если ее нет, она истекла или уже принадлежит этой реплике (продление)
+    /// (возвращает 1 - аренда получена, 0 - занята другой репликой).
+    /// Время берется по часам БД (UTC), поэтому расхождение часов реплик не влияет на аренду
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scheduler_leases (name, owner, locked_until) " +
+            "VALUES (:name, :owner, (now() AT TIME ZONE 'UTC') + :leaseSeconds * INTERVAL '1 second') " +
+            "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, locked_until = EXCLUDED.locked_until " +
+            "WHERE scheduler_leases.locked_until < (now() AT TIME ZONE 'UTC') OR scheduler_leases.owner = EXCLUDED.owner",
+            nativeQuery = true)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+}
@@ -0,0 +1,66 @@
+package ru.nand.registryservice.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.TagPosting;
+import ru.nand.registryservice.entities.TagPostingId;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TagPostingRepository extends JpaRepository<TagPosting, TagPostingId> {
+
+    /// Запись поста в списки постов его тэгов
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO tag_postings (tag_id, post_id, date_of_publication) " +
+            "SELECT t.id, :postId, :dateOfPublication FROM tags t WHERE t.id IN (:tagIds) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertPostings(@Param("postId") int postId, @Param("dateOfPublication") LocalDateTime dateOfPublication,
+                       @Param("tagIds") Collection<Integer> tagIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TagPosting tp WHERE tp.id.postId = :postId")
+    int deleteByPostId(@Param("postId") int postId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM tag_postings tp USING posts p WHERE tp.post_id = p.id AND p.user_id = :authorId", nativeQuery = true)
+    int deleteByAuthorId(@Param("authorId") int authorId);
+
+    /// AND: обход списка самого редкого тэга от курсора, остальные тэги проверяются по первичному ключу (post_id, tag_id)
+    @Query(value = "SELECT tp.post_id FROM tag_postings tp WHERE tp.tag_id = :driverTagId " +
+            "AND (tp.date_of_publication, tp.post_id) < (:cursorDate, :cursorId) " +
+            "AND (SELECT COUNT(*) FROM tag_postings o WHERE o.post_id = tp.post_id AND o.tag_id IN (:tagIds)) = :size " +
+            "ORDER BY tp.date_of_publication DESC, tp.post_id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Integer> findPostIdsWithAllTags(@Param("driverTagId") int driverTagId, @Param("tagIds") Collection<Integer> tagIds,
+                                         @Param("size") int size, @Param("cursorDate") LocalDateTime cursorDate,
+                                         @Param("cursorId") int cursorId, @Param("limit") int limit);
+
+    /// OR: объединение списков тэгов от курсора без повторов
+    @Query(value = "SELECT tp.post_id FROM tag_postings tp WHERE tp.tag_id IN (:tagIds) " +
+            "AND (tp.date_of_publication, tp.post_id) < (:cursorDate, :cursorId) " +
+            "GROUP BY tp.post_id, tp.date_of_publication " +
+            "ORDER BY tp.date_of_publication DESC, tp.post_id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Integer> findPostIdsWithAnyTag(@Param("tagIds") Collection<Integer> tagIds, @Param("cursorDate") LocalDateTime cursorDate,
+                                        @Param("cursorId") int cursorId, @Param("limit") int limit);
+
+    /// Заполнение индекса по тэгам существующих постов
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO tag_postings (tag_id, post_id, date_of_publication) " +
+            "SELECT DISTINCT t.id, p.id, p.date_of_publication FROM post_tags pt " +
+            "JOIN posts p ON p.id = pt.post_id JOIN tags t ON t.name = LOWER(TRIM(pt.tag)) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int fillFromPosts();
+}
@@ -0,0 +1,67 @@
+package ru.nand.registryservice.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.Tag;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Integer> {
+
+    List<Tag> findByNameIn(Collection<String> names);
+
+    /// Самые популярные тэги (по индексу ix_tags_posts_count_id)
+    List<Tag> findByPostsCountGreaterThanOrderByPostsCountDescIdAsc(int postsCount, Pageable pageable);
+
+    /// Добавление тэга в словарь, если его еще нет
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO tags (name, posts_count) VALUES (:name, 0) ON CONFLICT (name) DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name);
+
+    /// Атомарное изменение счетчиков постов тэгов на delta
+    @Modifying
+    @Transactional
+    @Query("UPDATE Tag t SET t.postsCount = t.postsCount + :delta WHERE t.id IN :tagIds")
+    void addPostsCount(@Param("tagIds") Collection<Integer> tagIds, @Param("delta") int delta);
+
+    /// Уменьшение счетчиков тэгов поста (до удаления его записей индекса)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tags SET posts_count = posts_count - 1 " +
+            "WHERE id IN (SELECT tp.tag_id FROM tag_postings tp WHERE tp.post_id = :postId)",
+            nativeQuery = true)
+    void decrementForPost(@Param("postId") int postId);
+
+    /// Уменьшение счетчиков тэгов всех постов автора (до удаления его записей индекса)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tags t SET posts_count = t.posts_count - c.cnt FROM (" +
+            "SELECT tp.tag_id, COUNT(*) AS cnt FROM tag_postings tp JOIN posts p ON p.id = tp.post_id " +
+            "WHERE p.user_id = :authorId GROUP BY tp.tag_id) c " +
+            "WHERE t.id = c.tag_id",
+            nativeQuery = true)
+    void decrementForAuthor(@Param("authorId") int authorId);
+
+    /// Заполнение словаря из тэгов существующих постов
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO tags (name, posts_count) " +
+            "SELECT DISTINCT LOWER(TRIM(pt.tag)), 0 FROM post_tags pt WHERE TRIM(pt.tag) <> '' " +
+            "ON CONFLICT (name) DO NOTHING",
+            nativeQuery = true)
+    int fillFromPosts();
+
+    /// Пересчет счетчиков по записям индекса
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tags t SET posts_count = (SELECT COUNT(*) FROM tag_postings tp WHERE tp.tag_id = t.id)", nativeQuery = true)
+    int recountPosts();
+}
@@ -0,0 +1,105 @@
+package ru.nand.registryservice.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.TimelineEntry;
+import ru.nand.registryservice.entities.TimelineEntryId;
+
+import java.util.List;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, TimelineEntryId> {
+
+    /// Добавление поста в ленты всех подписчиков автора одним запросом
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id) " +
+            "SELECT f.follower_id, :postId FROM follows f WHERE f.followee_id = :authorId ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int fanOutPost(@Param("authorId") int authorId, @Param("postId") int postId);
+
+    /// Добавление последних постов автора в ленту нового подписчика
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id) " +
+            "SELECT :userId, p.id FROM posts p WHERE p.user_id = :authorId ORDER BY p.id DESC LIMIT :limit ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int addAuthorPosts(@Param("userId") int userId, @Param("authorId") int authorId, @Param("limit") int limit);
+
+    /// Удаление постов автора из ленты отписавшегося пользователя
+    @Modifying
+    @Query(value = "DELETE FROM timeline_entries t USING posts p " +
+            "WHERE t.user_id = :userId AND t.post_id = p.id AND p.user_id = :authorId",
+            nativeQuery = true)
+    int removeAuthorPosts(@Param("userId") int userId, @Param("authorId") int authorId);
+
+    /// Удаление постов автора из всех лент (при удалении пользователя)
+    @Modifying
+    @Query(value = "DELETE FROM timeline_entries t USING posts p WHERE t.post_id = p.id AND p.user_id = :userId",
+            nativeQuery = true)
+    int deleteAuthorPosts(@Param("userId") int userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM timeline_entries WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") int userId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.id.postId = :postId")
+    int deleteByPostId(@Param("postId") int postId);
+
+    /// id постов ленты пользователя с id < beforeId по убыванию (диапазонное чтение по ix_timeline_entries_user_post)
+    @Query(value = "SELECT t.post_id FROM timeline_entries t WHERE t.user_id = :userId AND t.post_id < :beforeId " +
+            "ORDER BY t.post_id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Integer> findPostIds(@Param("userId") int userId, @Param("beforeId") int beforeId, @Param("limit") int limit);
+
+    /// id постов "знаменитостей" (подписчиков больше порога), на которых подписан пользователь - их посты не рассылаются при записи.
+    /// Также подмешиваются посты авторов с timeline_pull, чьи ленты подписчиков еще не дозаполнены
+    @Query(value = "SELECT p.id FROM follows f JOIN users a ON a.id = f.followee_id JOIN posts p ON p.user_id = f.followee_id " +
+            "WHERE f.follower_id = :userId AND (a.subscribers_count > :threshold OR a.timeline_pull) AND p.id < :beforeId " +
+            "ORDER BY p.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Integer> findCelebrityPostIds(@Param("userId") int userId, @Param("threshold") int threshold,
+                                       @Param("beforeId") int beforeId, @Param("limit") int limit);
+
+    /// Обрезка лент пользователей с id в (fromId, toId] до последних windowSize записей
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM timeline_entries t USING (" +
+            "SELECT user_id, post_id, row_number() OVER (PARTITION BY user_id ORDER BY post_id DESC) AS rn FROM timeline_entries " +
+            "WHERE user_id > :fromId AND user_id <= :toId) r " +
+            "WHERE t.user_id = r.user_id AND t.post_id = r.post_id AND r.rn > :windowSize",
+            nativeQuery = true)
+    int trimTimelines(@Param("fromId") int fromId, @Param("toId") int toId, @Param("windowSize") int windowSize);
+
+    /// Добавление последних windowSize постов автора в ленты указанных подписчиков
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id) " +
+            "SELECT f.follower_id, p.id FROM follows f " +
+            "CROSS JOIN (SELECT id FROM posts WHERE user_id = :authorId ORDER BY id DESC LIMIT :windowSize) p " +
+            "WHERE f.followee_id = :authorId AND f.follower_id IN (:followerIds) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int addAuthorPostsToFollowers(@Param("authorId") int authorId, @Param("followerIds") List<Integer> followerIds,
+                                  @Param("windowSize") int windowSize);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM timeline_entries WHERE user_id > :fromId AND user_id <= :toId", nativeQuery = true)
+    int clearTimelines(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    /// Пересборка лент пользователей с id в (fromId, toId]: последние windowSize постов авторов ниже порога "знаменитости"
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id) " +
+            "SELECT r.follower_id, r.post_id FROM (" +
+            "SELECT f.follower_id, p.id AS post_id, row_number() OVER (PARTITION BY f.follower_id ORDER BY p.id DESC) AS rn " +
+            "FROM follows f JOIN users a ON a.id = f.followee_id JOIN posts p ON p.user_id = f.followee_id " +
+            "WHERE f.follower_id > :fromId AND f.follower_id <= :toId AND a.subscribers_count <= :threshold) r " +
+            "WHERE r.rn <= :windowSize ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int rebuildTimelines(@Param("fromId") int fromId, @Param("toId") int toId,
+                         @Param("threshold") int threshold, @Param("windowSize") int windowSize);
+}
@@ -1,11 +1,18 @@
 package ru.nand.registryservice.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.DTO.ResolvedUserDTO;
 import ru.nand.registryservice.entities.ENUMS.ROLE;
 import ru.nand.registryservice.entities.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +24,78 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findById(Integer id);
     List<User> findByRegistrationDateBetween(LocalDateTime start, LocalDateTime end);
     List<User> findByRole(ROLE role);
-}
\ No newline at end of file
+
+    /// Пакетное получение пользователей одним запросом WHERE id IN (...) без загрузки сущностей
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.ResolvedUserDTO(u.id, u.username, u.email, u.isBlocked) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<ResolvedUserDTO> findResolvedByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /// Страница аккаунтов по убыванию числа подписчиков (по индексу ix_users_subscribers_count_id)
+    List<User> findAllByOrderBySubscribersCountDescIdAsc(Pageable pageable);
+
+    /// Атомарное изменение счетчика подписчиков на delta
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.subscribersCount = u.subscribersCount + :delta WHERE u.id = :userId")
+    void addSubscribersCount(@Param("userId") int userId, @Param("delta") int delta);
+
+    /// Атомарное изменение счетчика подписок на delta
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.subscriptionsCount = u.subscriptionsCount + :delta WHERE u.id = :userId")
+    void addSubscriptionsCount(@Param("userId") int userId, @Param("delta") int delta);
+
+    /// Атомарное изменение счетчика постов на delta
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.postsCount = u.postsCount + :delta WHERE u.id = :userId")
+    void addPostsCount(@Param("userId") int userId, @Param("delta") int delta);
+
+    /// Уменьшение счетчиков всех, с кем связан удаляемый пользователь, одним запросом (до удаления его подписок).
+    /// Ребра агрегируются по второй стороне, чтобы взаимная подписка уменьшала оба счетчика
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users u SET " +
+            "subscribers_count = u.subscribers_count - c.subscribers, subscriptions_count = u.subscriptions_count - c.subscriptions " +
+            "FROM (SELECT e.other_id, SUM(e.subscribers) AS subscribers, SUM(e.subscriptions) AS subscriptions FROM (" +
+            "SELECT f.followee_id AS other_id, 1 AS subscribers, 0 AS subscriptions FROM follows f WHERE f.follower_id = :userId " +
+            "UNION ALL " +
+            "SELECT f.follower_id AS other_id, 0 AS subscribers, 1 AS subscriptions FROM follows f WHERE f.followee_id = :userId" +
+            ") e GROUP BY e.other_id) c " +
+            "WHERE u.id = c.other_id AND u.id <> :userId",
+            nativeQuery = true)
+    int subtractFollowCountersOf(@Param("userId") int userId);
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM users", nativeQuery = true)
+    int findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET timeline_pull = true WHERE id = :userId AND NOT timeline_pull", nativeQuery = true)
+    int markTimelinePull(@Param("userId") int userId);
+
+    /// Авторы, чьи посты подмешиваются при чтении, хотя они уже не выше порога "знаменитости"
+    @Query(value = "SELECT id FROM users WHERE timeline_pull AND subscribers_count <= :threshold AND id > :cursor ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Integer> findTimelinePullBelow(@Param("threshold") int threshold, @Param("cursor") int cursor, @Param("limit") int limit);
+
+    /// Флаг не снимается, если автор снова поднялся выше порога
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET timeline_pull = false WHERE id = :userId AND subscribers_count <= :threshold", nativeQuery = true)
+    int clearTimelinePull(@Param("userId") int userId, @Param("threshold") int threshold);
+
+    /// Пересчет счетчиков по фактическим данным для пользователей с id в (fromId, toId] (возвращает число исправленных строк)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users u SET " +
+            "subscribers_count = c.subscribers, subscriptions_count = c.subscriptions, posts_count = c.posts " +
+            "FROM (SELECT u2.id, " +
+            "(SELECT COUNT(*) FROM follows f WHERE f.followee_id = u2.id) AS subscribers, " +
+            "(SELECT COUNT(*) FROM follows f WHERE f.follower_id = u2.id) AS subscriptions, " +
+            "(SELECT COUNT(*) FROM posts p WHERE p.user_id = u2.id) AS posts " +
+            "FROM users u2 WHERE u2.id > :fromId AND u2.id <= :toId) c " +
+            "WHERE u.id = c.id AND (u.subscribers_count <> c.subscribers OR u.subscriptions_count <> c.subscriptions OR u.posts_count <> c.posts)",
+            nativeQuery = true)
+    int reconcileCounters(@Param("fromId") int fromId, @Param("toId") int toId);
+}
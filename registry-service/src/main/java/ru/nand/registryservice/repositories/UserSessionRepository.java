@@ -1,7 +1,14 @@
 package ru.nand.registryservice.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.nand.registryservice.entities.DTO.RevokedTokenDTO;
+import ru.nand.registryservice.entities.DTO.SessionSweepRowDTO;
 import ru.nand.registryservice.entities.ENUMS.STATUS;
 import ru.nand.registryservice.entities.User;
 import ru.nand.registryservice.entities.UserSession;
@@ -12,15 +19,68 @@ import java.util.Optional;
 
 @Repository
 public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
-    Optional<UserSession> findByRefreshToken(String refreshToken);
+    Optional<UserSession> findByRefreshTokenHash(String refreshTokenHash);
 
     List<UserSession> findByUserAndStatus(User user, STATUS status);
 
     List<UserSession> findByStatusAndSessionCreationTimeBefore(STATUS status, LocalDateTime threshold);
 
-    Optional<UserSession> findByAccessToken(String accessToken);
+    Optional<UserSession> findByAccessTokenHash(String accessTokenHash);
 
     List<UserSession> findByStatusAndLastActivityTimeBefore(STATUS status, LocalDateTime threshold);
 
+    /// Порция сессий для массовой обработки (по индексу ix_sessions_status_last_activity), без загрузки сущностей
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.SessionSweepRowDTO(s.id, s.user.id, s.accessTokenHash, s.accessTokenExpires) " +
+            "FROM UserSession s WHERE s.status = :status AND s.lastActivityTime < :threshold")
+    List<SessionSweepRowDTO> findSweepChunk(@Param("status") STATUS status, @Param("threshold") LocalDateTime threshold, Pageable pageable);
+
+    /// Перевод порции сессий в новый статус одним UPDATE (сессии, статус которых успел измениться, пропускаются)
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserSession s SET s.status = :newStatus, s.lastActivityTime = :now WHERE s.id IN :ids AND s.status = :oldStatus")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("oldStatus") STATUS oldStatus,
+                          @Param("newStatus") STATUS newStatus, @Param("now") LocalDateTime now);
+
+    /// Удаление порции из batchSize сессий (возвращает число удаленных строк)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM sessions WHERE id IN (" +
+            "SELECT id FROM sessions WHERE status = :status AND last_activity_time < :threshold LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteChunk(@Param("status") String status, @Param("threshold") LocalDateTime threshold, @Param("batchSize") int batchSize);
+
     List<UserSession> findByStatus(STATUS status);
+
+    /// Хэши access токенов неактивных сессий, которые еще не истекли (снимок списка отзыва для сервисов)
+    @Query("SELECT new ru.nand.registryservice.entities.DTO.RevokedTokenDTO(s.accessTokenHash, s.accessTokenExpires) " +
+            "FROM UserSession s WHERE s.status <> :status AND s.accessTokenHash IS NOT NULL AND s.accessTokenExpires > :now")
+    List<RevokedTokenDTO> findRevokedTokens(@Param("status") STATUS activeStatus, @Param("now") LocalDateTime now);
+
+    /// Старые сессии с тем же токеном, что и у более новой сессии, отзываются и очищаются до заполнения хэшей:
+    /// иначе хэш дубликата нарушил бы уникальность ux_sessions_*_token_hash и заполнение остановилось бы на этой порции
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE sessions s SET status = 'REVOKED', access_token = NULL, refresh_token = NULL, " +
+            "access_token_hash = NULL, refresh_token_hash = NULL " +
+            "WHERE s.access_token IS NOT NULL AND EXISTS (SELECT 1 FROM sessions d WHERE d.access_token = s.access_token AND d.id > s.id)",
+            nativeQuery = true)
+    int revokeOlderDuplicateAccessTokens();
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE sessions s SET status = 'REVOKED', access_token = NULL, refresh_token = NULL, " +
+            "access_token_hash = NULL, refresh_token_hash = NULL " +
+            "WHERE s.refresh_token IS NOT NULL AND EXISTS (SELECT 1 FROM sessions d WHERE d.refresh_token = s.refresh_token AND d.id > s.id)",
+            nativeQuery = true)
+    int revokeOlderDuplicateRefreshTokens();
+
+    /// Заполнение хэшей токенов для старых сессий порцией из batchSize строк (возвращает число обновленных строк)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE sessions SET " +
+            "access_token_hash = encode(sha256(convert_to(access_token, 'UTF8')), 'hex'), " +
+            "refresh_token_hash = encode(sha256(convert_to(refresh_token, 'UTF8')), 'hex') " +
+            "WHERE id IN (SELECT id FROM sessions WHERE access_token_hash IS NULL AND access_token IS NOT NULL LIMIT :batchSize)",
+            nativeQuery = true)
+    int backfillTokenHashes(@Param("batchSize") int batchSize);
 }
@@ -5,19 +5,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.nand.registryservice.entities.Comment;
 import ru.nand.registryservice.entities.DTO.PostsUserService.CommentCreateDTO;
 import ru.nand.registryservice.entities.DTO.PostsUserService.CommentDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.CommentsPageDTO;
 import ru.nand.registryservice.entities.Post;
 import ru.nand.registryservice.entities.User;
 import ru.nand.registryservice.repositories.CommentRepository;
 import ru.nand.registryservice.repositories.PostRepository;
 import ru.nand.registryservice.repositories.UserRepository;
+import ru.nand.registryservice.utils.PostCursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -29,7 +32,11 @@ public class CommentService {
     private final UserSessionService userSessionService;
     private final UserRepository userRepository;
 
+    @Value("${comments.page.max-size:200}")
+    private int commentsMaxPageSize;
+
     /// Добавление комментария к посту
+    @Transactional
     public String addComment(int postId, String requestMessage){
         CommentCreateDTO commentCreateDTO;
         try{
@@ -56,6 +63,7 @@ public class CommentService {
         userSessionService.updateLastActivityTime(user);
 
         commentRepository.save(comment);
+        postRepository.addCommentsCount(postId, 1);
 
         return "Комментарий добавлен";
     }
@@ -106,20 +114,25 @@ public class CommentService {
         );
 
         commentRepository.delete(comment);
+        postRepository.addCommentsCount(comment.getPost().getId(), -1);
 
         return "Комментарий удален";
     }
 
-    /// Получение всех комментариев поста
-    public List<CommentDTO> getPostComments(int postId){
-        return commentRepository.findByPostId(postId).stream()
-                .map(comment -> new CommentDTO(
-                        comment.getId(),
-                        comment.getPost().getId(),
-                        comment.getAuthor().getUsername(),
-                        comment.getText(),
-                        comment.getDateOfCreation()
-                )).collect(Collectors.toList());
+    /// Страница комментариев поста от старых к новым (cursor - nextCursor предыдущей страницы, null - с первого комментария)
+    public CommentsPageDTO getPostComments(int postId, String cursor, int limit){
+        PostCursor position = PostCursor.decode(cursor, PostCursor.OLDEST);
+        int pageSize = Math.max(1, Math.min(limit, commentsMaxPageSize));
+
+        List<CommentDTO> page = commentRepository.findPage(postId, position.date(), position.id(), PageRequest.of(0, pageSize));
+
+        String nextCursor = null;
+        if (page.size() == pageSize) {
+            CommentDTO last = page.getLast();
+            nextCursor = new PostCursor(last.getCreationDate(), last.getCommentId()).encode();
+        }
+
+        return new CommentsPageDTO(page, nextCursor);
     }
 
 }
@@ -3,15 +3,16 @@ package ru.nand.registryservice.services;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import ru.nand.registryservice.entities.DTO.PostsUserService.LikedUsersPageDTO;
 import ru.nand.registryservice.entities.DTO.UserDTO;
-import ru.nand.registryservice.entities.Post;
 import ru.nand.registryservice.entities.User;
 import ru.nand.registryservice.repositories.PostRepository;
 import ru.nand.registryservice.repositories.UserRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -20,22 +21,28 @@ public class LikeService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final UserSessionService userSessionService;
+    private final LikesCounterService likesCounterService;
 
-    /// Установка лайка на пост
+    @Value("${likes.page.max-size:500}")
+    private int likesMaxPageSize;
+
+    /// Установка лайка на пост (повторный лайк ничего не меняет)
     @Transactional
     public String likePost(int postId, String username){
         try{
-            Post post = postRepository.findById(postId)
-                    .orElseThrow(() -> new RuntimeException("Пост не найден"));
+            if (!postRepository.existsById(postId)) {
+                throw new RuntimeException("Пост не найден");
+            }
 
             User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
 
             userSessionService.updateLastActivityTime(user);
 
-            post.getLikes().add(user);
-
-            postRepository.save(post);
+            // Одна строка post_likes вместо загрузки и сохранения всех лайков поста
+            if (postRepository.insertLike(postId, user.getId()) > 0) {
+                likesCounterService.increment(postId);
+            }
 
             return "Лайк к посту успешно добавлен";
         } catch (Exception e){
@@ -44,21 +51,22 @@ public class LikeService {
         }
     }
 
-    /// Снятие лайка с поста
+    /// Снятие лайка с поста (повторное снятие ничего не меняет)
     @Transactional
     public String unlikePost(int postId, String username){
         try {
-            Post post = postRepository.findById(postId)
-                    .orElseThrow(() -> new RuntimeException("Пост не найден"));
+            if (!postRepository.existsById(postId)) {
+                throw new RuntimeException("Пост не найден");
+            }
 
             User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
 
             userSessionService.updateLastActivityTime(user);
 
-            post.getLikes().remove(user);
-
-            postRepository.save(post);
+            if (postRepository.deleteLike(postId, user.getId()) > 0) {
+                likesCounterService.decrement(postId);
+            }
 
             return "Лайк с поста успешно снят";
         } catch (Exception e){
@@ -67,19 +75,16 @@ public class LikeService {
         }
     }
 
-    /// Получение списка пользователей, лайкнувших пост
-    public List<UserDTO> getLikedUsers(int postId){
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Пост не найден"));
-
-        return post.getLikes().stream()
-                .map(user -> new UserDTO(
-                        user.getId(),
-                        user.getUsername(),
-                        user.getEmail(),
-                        user.getSubscribers().size(),
-                        user.getSubscriptions().size(),
-                        user.getPosts().size()
-                )).collect(Collectors.toList());
+    /// Страница пользователей, лайкнувших пост: cursor - id последнего пользователя предыдущей страницы (0 - с начала)
+    public LikedUsersPageDTO getLikedUsers(int postId, int cursor, int limit){
+        if (!postRepository.existsById(postId)) {
+            throw new RuntimeException("Пост не найден");
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, likesMaxPageSize));
+        List<UserDTO> page = postRepository.findLikedUsersPage(postId, cursor, PageRequest.of(0, pageSize));
+        Integer nextCursor = page.size() == pageSize ? page.getLast().getId() : null;
+
+        return new LikedUsersPageDTO(page, nextCursor);
     }
 }
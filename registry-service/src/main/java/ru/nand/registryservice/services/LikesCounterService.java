@@ -0,0 +1,92 @@
+package ru.nand.registryservice.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.nand.registryservice.repositories.PostRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Буфер изменений счетчиков лайков: одновременные лайки одного поста помечают его как измененный,
+/// а периодический сброс пересчитывает posts.likes_count по post_likes одним UPDATE на пачку постов,
+/// без блокировки строки поста на каждый лайк.
+/// Пересчет идемпотентен, поэтому реплики и ночная сверка счетчиков не применяют одни и те же лайки повторно
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LikesCounterService {
+    private final PostRepository postRepository;
+
+    private final Set<Integer> dirtyPostIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${likes.counter.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    /// Пост помечается только после коммита транзакции лайка, поэтому пересчет увидит новую строку post_likes
+    public void increment(int postId) {
+        afterCommit(() -> dirtyPostIds.add(postId));
+    }
+
+    public void decrement(int postId) {
+        afterCommit(() -> dirtyPostIds.add(postId));
+    }
+
+    /// Сброс накопленных изменений в БД. Пост снимается с пометки до пересчета:
+    /// лайк, закоммиченный во время сброса, снова пометит пост и будет учтен следующим сбросом
+    @Scheduled(fixedDelayString = "${likes.counter.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Integer> batch = new ArrayList<>(flushBatchSize);
+        Iterator<Integer> iterator = dirtyPostIds.iterator();
+
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+
+            if (batch.size() >= flushBatchSize) {
+                recompute(batch);
+                batch = new ArrayList<>(flushBatchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            recompute(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void recompute(List<Integer> postIds) {
+        try {
+            postRepository.recomputeLikesCount(postIds);
+        } catch (Exception e) {
+            log.warn("Ошибка при пересчете счетчиков лайков {} постов: {}", postIds.size(), e.getMessage());
+            dirtyPostIds.addAll(postIds);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
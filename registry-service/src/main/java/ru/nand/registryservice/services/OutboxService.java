@@ -0,0 +1,81 @@
+package ru.nand.registryservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import ru.nand.registryservice.entities.OutboxEvent;
+import ru.nand.registryservice.repositories.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/// Transactional outbox: события пишутся в outbox_events в транзакции вызывающего метода,
+/// в Kafka их отправляет OutboxRelay порциями
+@Slf4j
+@Service
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    private final Counter publishedEventsCounter;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int relayBatchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Autowired
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         KafkaTemplate<String, String> kafkaTemplate,
+                         MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.publishedEventsCounter = meterRegistry.counter("outbox.relay.published");
+    }
+
+    /// Запись события (присоединяется к текущей транзакции, если она есть)
+    @Transactional
+    public void enqueue(String topic, String key, String payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(payload)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /// Отправка одной порции событий. Все сообщения порции уходят в продюсер без ожидания по одному,
+    /// затем ожидается подтверждение всей порции и строки удаляются в той же транзакции.
+    /// При ошибке транзакция откатывается и порция будет отправлена повторно (at-least-once)
+    @Transactional
+    public int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForUpdate(relayBatchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        CompletableFuture<?>[] futures = batch.stream()
+                .map(event -> kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()))
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(futures).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка при отправке порции событий в Kafka: " + e.getMessage());
+        }
+
+        outboxEventRepository.deleteByIds(batch.stream().map(OutboxEvent::getId).toList());
+        publishedEventsCounter.increment(batch.size());
+        log.debug("Отправлено {} событий из outbox", batch.size());
+
+        return batch.size();
+    }
+}
@@ -5,20 +5,34 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.nand.registryservice.entities.DTO.AnalyticsService.CreatedPostsDTO;
+import ru.nand.registryservice.entities.DTO.NotificationsService.PostCreatedEventDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostAttributeDTO;
 import ru.nand.registryservice.entities.DTO.PostsUserService.PostCreateDTO;
 import ru.nand.registryservice.entities.DTO.PostsUserService.PostDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostSearchSummary;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostSummary;
 import ru.nand.registryservice.entities.DTO.PostsUserService.PostUpdateDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostsPageDTO;
+import ru.nand.registryservice.entities.DTO.PostsUserService.TagCountDTO;
 import ru.nand.registryservice.entities.Post;
 import ru.nand.registryservice.entities.User;
 import ru.nand.registryservice.repositories.PostRepository;
 import ru.nand.registryservice.repositories.UserRepository;
+import ru.nand.registryservice.utils.PostCursor;
 import ru.nand.registryservice.utils.RegistryUtil;
+import ru.nand.registryservice.utils.SearchCursor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,6 +44,14 @@ public class PostService {
     private final RegistryUtil registryUtil;
     private final ObjectMapper objectMapper;
     private final UserSessionService userSessionService;
+    private final TimelineService timelineService;
+    private final TagIndexService tagIndexService;
+
+    @Value("${posts.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${posts.page.max-size:200}")
+    private int maxPageSize;
 
     /// Создание поста
     @Transactional
@@ -55,15 +77,19 @@ public class PostService {
                 .build();
 
         postRepository.save(post);
+        userRepository.addPostsCount(postAuthor.getId(), 1);
         log.debug("Сохранил пост автора: {}", postAuthor.getUsername());
 
-        // Отправка уведомлений подписчикам
-        for (User subscriber : postAuthor.getSubscribers()) {
-            registryUtil.sendNotification(
-                    subscriber.getEmail(),
-                    "Посмотрите новый пост от " + postAuthor.getUsername()
-            );
-        }
+        // Добавление поста в ленты подписчиков и в индекс тэгов
+        timelineService.onPostCreated(postAuthor, post);
+        tagIndexService.indexPost(post);
+
+        // Одно событие о новом посте (пишется в outbox в этой же транзакции), уведомления подписчикам рассылает notifications-service
+        registryUtil.sendPostCreatedEvent(PostCreatedEventDTO.builder()
+                .authorId(postAuthor.getId())
+                .authorUsername(postAuthor.getUsername())
+                .postId(post.getId())
+                .build());
 
         // Обновление последней активности автора
         userSessionService.updateLastActivityTime(postAuthor);
@@ -80,8 +106,8 @@ public class PostService {
                 .text(post.getText())
                 .dateOfPublication(post.getDateOfPublication())
                 .tags(post.getTags())
-                .likes(post.getLikes().size())
-                .comments(post.getComments().size())
+                .likes(post.getLikesCount())
+                .comments(post.getCommentsCount())
                 .imagesUrls(post.getFilenames())
                 .images(null)
                 .build();
@@ -119,6 +145,9 @@ public class PostService {
 
         log.debug("Пост с id {} удален", id);
         postRepository.delete(post);
+        userRepository.addPostsCount(user.getId(), -1);
+        timelineService.onPostDeleted(id);
+        tagIndexService.removePost(id);
 
         // Возвращаем список названий изображений для удаления
         return responseMessage;
@@ -149,96 +178,137 @@ public class PostService {
         userSessionService.updateLastActivityTime(user);
 
         postRepository.save(post);
+        tagIndexService.reindexPost(post);
 
         return "Пост успешно обновлен";
     }
 
-    /// Получение всех постов
-    public List<PostDTO> getAllPosts(){
-        return postRepository.findAll().stream()
-                .map(post -> new PostDTO(
-                        post.getId(),
-                        post.getAuthor().getUsername(),
-                        post.getText(),
-                        post.getDateOfPublication(),
-                        post.getTags(),
-                        post.getLikes().size(),
-                        post.getComments().size(),
-                        post.getFilenames(),
-                        null,
-                        null
-                )).collect(Collectors.toList());
+    /// Страница всех постов (cursor - непрозрачный курсор предыдущей страницы, null - с самого нового)
+    public PostsPageDTO getAllPosts(String cursor, Integer limit){
+        PostCursor position = PostCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+
+        return toSummariesPage(postRepository.findPage(position.date(), position.id(), pageSize), pageSize);
     }
 
-    /// Получение постов конкретного пользователя
-    public List<PostDTO> getPostsByAuthor(String authorUsername){
-        return postRepository.findByAuthor(
-                userRepository.findByUsername(authorUsername).orElseThrow(()-> new RuntimeException("Пользователь не найден"))
-                ).stream()
-                .map(post -> new PostDTO(
-                        post.getId(),
-                        authorUsername,
-                        post.getText(),
-                        post.getDateOfPublication(),
-                        post.getTags(),
-                        post.getLikes().size(),
-                        post.getComments().size(),
-                        post.getFilenames(),
-                        null,
-                        null
-                )).collect(Collectors.toList());
+    /// Страница постов конкретного пользователя
+    public PostsPageDTO getPostsByAuthor(String authorUsername, String cursor, Integer limit){
+        User author = userRepository.findByUsername(authorUsername)
+                .orElseThrow(()-> new RuntimeException("Пользователь не найден"));
+        PostCursor position = PostCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+
+        return toSummariesPage(postRepository.findPageByAuthor(author.getId(), position.date(), position.id(), pageSize), pageSize);
     }
 
-    /// Получение постов подписок конкретного пользователя
-    public List<PostDTO> getSubscriptionsPosts(String username){
+    /// Страница постов подписок конкретного пользователя (лента упорядочена по id, из курсора берется id последнего поста)
+    public PostsPageDTO getSubscriptionsPosts(String username, String cursor, Integer limit){
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        Set<User> subscriptions = user.getSubscriptions();
-
-        return postRepository.findByAuthorIn(subscriptions).stream()
-                .map(post -> new PostDTO(
-                        post.getId(),
-                        post.getAuthor().getUsername(),
-                        post.getText(),
-                        post.getDateOfPublication(),
-                        post.getTags(),
-                        post.getLikes().size(),
-                        post.getComments().size(),
-                        post.getFilenames(),
-                        null,
-                        null
-                )).collect(Collectors.toList());
+        PostCursor position = PostCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+
+        return toPostsPage(timelineService.getTimelinePostIds(user.getId(), position.id(), pageSize), pageSize);
     }
 
-    /// Получение постов по тэгам
-    public List<PostDTO> getPostsByTags(List<String> tags){
-        return postRepository.findByTagsIn(tags, tags.size()).stream()
-                .map(post -> new PostDTO(
-                        post.getId(),
-                        post.getAuthor().getUsername(),
-                        post.getText(),
-                        post.getDateOfPublication(),
-                        post.getTags(),
-                        post.getLikes().size(),
-                        post.getComments().size(),
-                        post.getFilenames(),
-                        null,
-                        null
-                )).collect(Collectors.toList());
+    /// Страница постов по тэгам по индексу тэгов: mode = and - пост содержит все тэги, or - хотя бы один
+    public PostsPageDTO getPostsByTags(List<String> tags, String mode, String cursor, Integer limit){
+        PostCursor position = PostCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+        boolean matchAll = !"or".equalsIgnoreCase(mode);
+
+        return toPostsPage(tagIndexService.findPostIds(tags, matchAll, position, pageSize), pageSize);
     }
 
-    /// Получение поста по тексту
-    public List<PostDTO> getPostsByText(String text){
-        return postRepository.findByTextStartingWith(text).stream()
-                .map(post -> new PostDTO(
-                        post.getId(),
-                        post.getAuthor().getUsername(),
-                        post.getText(),
-                        post.getDateOfPublication(),
-                        post.getTags(),
-                        post.getLikes().size(),
-                        post.getComments().size(),
-                        post.getFilenames(),
+    /// Получение N самых популярных тэгов
+    public List<TagCountDTO> getPopularTags(int tagsCount){
+        return tagIndexService.getPopularTags(tagsCount);
+    }
+
+    /// Страница полнотекстового поиска постов по убыванию релевантности (курсор - SearchCursor)
+    public PostsPageDTO getPostsByText(String text, String cursor, Integer limit){
+        if (text == null || text.isBlank()) {
+            return new PostsPageDTO(new ArrayList<>(), null);
+        }
+
+        SearchCursor position = SearchCursor.decode(cursor);
+        int pageSize = normalizePageSize(limit);
+
+        String query = text.trim();
+        List<PostSearchSummary> page = postRepository.searchByText(query, toSubstringPattern(query), position.rank(), position.id(), pageSize);
+
+        String nextCursor = null;
+        if (page.size() == pageSize) {
+            PostSearchSummary last = page.getLast();
+            nextCursor = new SearchCursor(last.getRank(), last.getId()).encode();
+        }
+
+        return new PostsPageDTO(toPostDTOs(page), nextCursor);
+    }
+
+    /// Размер страницы: без limit - значение по умолчанию, иначе не больше максимального
+    private int normalizePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /// Шаблон поиска по подстроке: спецсимволы LIKE из запроса ищутся буквально, а не как подстановки
+    private String toSubstringPattern(String text) {
+        String escaped = text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /// Страница по упорядоченному списку id постов
+    private PostsPageDTO toPostsPage(List<Integer> postIds, int pageSize) {
+        if (postIds.isEmpty()) {
+            return new PostsPageDTO(new ArrayList<>(), null);
+        }
+
+        // Строки постов приходят без порядка - восстанавливаем порядок списка id
+        Map<Integer, PostSummary> summaries = postRepository.findSummariesByIds(postIds).stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+
+        return toSummariesPage(postIds.stream().map(summaries::get).filter(Objects::nonNull).toList(), pageSize);
+    }
+
+    private PostsPageDTO toSummariesPage(List<PostSummary> page, int pageSize) {
+        String nextCursor = null;
+        if (page.size() == pageSize) {
+            PostSummary last = page.getLast();
+            nextCursor = new PostCursor(last.getDateOfPublication(), last.getId()).encode();
+        }
+
+        return new PostsPageDTO(toPostDTOs(page), nextCursor);
+    }
+
+    /// Сборка DTO из строк страницы: тэги и имена файлов догружаются одним запросом на страницу, а не на каждый пост
+    private List<PostDTO> toPostDTOs(List<? extends PostSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> postIds = summaries.stream().map(PostSummary::getId).toList();
+        Map<Integer, Set<String>> tags = postRepository.findTagsByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(PostAttributeDTO::getPostId,
+                        Collectors.mapping(PostAttributeDTO::getValue, Collectors.toSet())));
+        Map<Integer, List<String>> filenames = postRepository.findFilenamesByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(PostAttributeDTO::getPostId,
+                        Collectors.mapping(PostAttributeDTO::getValue, Collectors.toList())));
+
+        return summaries.stream()
+                .map(summary -> new PostDTO(
+                        summary.getId(),
+                        summary.getOwnerUsername(),
+                        summary.getText(),
+                        summary.getDateOfPublication(),
+                        tags.getOrDefault(summary.getId(), new HashSet<>()),
+                        (int) summary.getLikes(),
+                        (int) summary.getComments(),
+                        filenames.getOrDefault(summary.getId(), new ArrayList<>()),
                         null,
                         null
                 )).collect(Collectors.toList());
@@ -251,23 +321,8 @@ public class PostService {
             LocalDateTime now = LocalDateTime.now();
             LocalDateTime startTime = now.minusHours(hoursCount);
 
-            // Получаем список постов, созданных за последние N часов
-            List<Post> posts = postRepository.findByDateOfPublicationBetween(startTime, now);
-
-            List<PostDTO> postDTOs = posts.stream()
-                    .map(post -> PostDTO.builder()
-                            .postId(post.getId())
-                            .ownerUsername(post.getAuthor().getUsername())
-                            .text(post.getText())
-                            .dateOfPublication(post.getDateOfPublication())
-                            .tags(post.getTags())
-                            .likes(post.getLikes().size())
-                            .comments(post.getComments().size())
-                            .imagesUrls(post.getFilenames())
-                            .images(null) // Для аналитики нет смысла обращаться к микросервису постов и брать от туда Base64 изображений или их байты
-                            .imagesBase64(null) // Для аналитики нет смысла обращаться к микросервису постов и брать от туда Base64 изображений или их байты
-                            .build())
-                    .collect(Collectors.toList());
+            // Получаем строки постов, созданных за последние N часов (изображения для аналитики не нужны)
+            List<PostDTO> postDTOs = toPostDTOs(postRepository.findSummariesByDateOfPublicationBetween(startTime, now));
 
             CreatedPostsDTO createdPostsDTO = CreatedPostsDTO.builder()
                     .postsCount(postDTOs.size())
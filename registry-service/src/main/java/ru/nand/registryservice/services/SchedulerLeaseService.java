@@ -0,0 +1,30 @@
+package ru.nand.registryservice.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.nand.registryservice.repositories.SchedulerLeaseRepository;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/// Выбор одной реплики для периодических задач через аренду в таблице scheduler_leases.
+/// Аренда не освобождается после выполнения: пока она не истекла, задача не запустится на других репликах,
+/// а реплика-владелец продлевает ее при следующем запуске. Поэтому аренда задается не короче периода задачи
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchedulerLeaseService {
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public boolean tryAcquire(String name, Duration leaseTime) {
+        try {
+            return schedulerLeaseRepository.tryAcquire(name, instanceId, leaseTime.toSeconds()) > 0;
+        } catch (Exception e) {
+            log.warn("Ошибка при захвате аренды задачи {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
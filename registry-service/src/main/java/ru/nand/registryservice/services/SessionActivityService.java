@@ -0,0 +1,109 @@
+package ru.nand.registryservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Буфер времени последней активности: для каждого пользователя хранится только самое позднее время,
+/// все накопленные значения периодически записываются в активные сессии одним UPDATE на порцию пользователей.
+/// При падении реплики теряется не больше одного периода сброса
+@Slf4j
+@Service
+public class SessionActivityService {
+    private static final String FLUSH_SQL =
+            "UPDATE sessions s SET last_activity_time = v.ts " +
+            "FROM unnest(?::integer[], ?::timestamp[]) AS v(user_id, ts) " +
+            "WHERE s.user_id = v.user_id AND s.status = 'ACTIVE' AND s.last_activity_time < v.ts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Integer, LocalDateTime> pendingActivity = new ConcurrentHashMap<>();
+
+    private final Counter flushedActivityCounter;
+
+    @Value("${sessions.activity.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    @Autowired
+    public SessionActivityService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        meterRegistry.gaugeMapSize("sessions.activity.buffer.depth", Tags.empty(), pendingActivity);
+        this.flushedActivityCounter = meterRegistry.counter("sessions.activity.flushed");
+    }
+
+    /// Отметка активности пользователя (без обращения к БД)
+    public void touch(int userId) {
+        pendingActivity.merge(userId, LocalDateTime.now(), this::latest);
+    }
+
+    /// Запись буфера в БД. Запись пользователя удаляется из буфера, только если после снимка она не изменилась,
+    /// при ошибке значения возвращаются в буфер до следующего сброса
+    @Scheduled(fixedDelayString = "${sessions.activity.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pendingActivity.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Integer, LocalDateTime>> batch = new ArrayList<>(flushBatchSize);
+        for (Map.Entry<Integer, LocalDateTime> entry : pendingActivity.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+
+            if (batch.size() == flushBatchSize) {
+                flushBatch(batch);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            flushBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushBatch(List<Map.Entry<Integer, LocalDateTime>> batch) {
+        batch.forEach(entry -> pendingActivity.remove(entry.getKey(), entry.getValue()));
+
+        Integer[] userIds = new Integer[batch.size()];
+        Timestamp[] timestamps = new Timestamp[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            userIds[i] = batch.get(i).getKey();
+            timestamps[i] = Timestamp.valueOf(batch.get(i).getValue());
+        }
+
+        try {
+            int updated = jdbcTemplate.update(FLUSH_SQL, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("integer", userIds));
+                ps.setArray(2, ps.getConnection().createArrayOf("timestamp", timestamps));
+            });
+
+            flushedActivityCounter.increment(batch.size());
+            log.debug("Время последней активности записано для {} пользователей, обновлено {} сессий", batch.size(), updated);
+        } catch (Exception e) {
+            log.warn("Ошибка при записи времени последней активности: {}", e.getMessage());
+            batch.forEach(entry -> pendingActivity.merge(entry.getKey(), entry.getValue(), this::latest));
+        }
+    }
+
+    private LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
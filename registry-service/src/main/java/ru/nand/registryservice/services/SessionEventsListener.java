@@ -0,0 +1,33 @@
+package ru.nand.registryservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import ru.nand.registryservice.entities.DTO.SessionEventDTO;
+
+@Slf4j
+@Service
+public class SessionEventsListener {
+    private final UserSessionService userSessionService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SessionEventsListener(UserSessionService userSessionService, ObjectMapper objectMapper) {
+        this.userSessionService = userSessionService;
+        this.objectMapper = objectMapper;
+    }
+
+    /// У каждой реплики своя группа, поэтому событие получают все реплики
+    @KafkaListener(topics = "session-events-topic", groupId = "${sessions.events.group-id}", containerFactory = "sessionEventsListenerContainerFactory")
+    public void handleSessionEvent(String message) {
+        try {
+            SessionEventDTO sessionEventDTO = objectMapper.readValue(message, SessionEventDTO.class);
+            userSessionService.applySessionEvent(sessionEventDTO);
+        } catch (JsonProcessingException e) {
+            log.warn("Ошибка при десериализации события сессии: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.nand.registryservice.services;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.nand.registryservice.entities.DTO.PostsUserService.TagCountDTO;
+import ru.nand.registryservice.entities.Post;
+import ru.nand.registryservice.entities.Tag;
+import ru.nand.registryservice.repositories.TagPostingRepository;
+import ru.nand.registryservice.repositories.TagRepository;
+import ru.nand.registryservice.utils.PostCursor;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/// Инвертированный индекс тэгов: словарь тэгов со счетчиками постов и списки постов каждого тэга по убыванию даты публикации.
+/// Поддерживается в транзакциях создания, редактирования и удаления постов
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TagIndexService {
+    private final TagRepository tagRepository;
+    private final TagPostingRepository tagPostingRepository;
+
+    /// Приведение тэга к виду словаря, пустые тэги отбрасываются
+    public static Set<String> normalize(Collection<String> tags) {
+        if (tags == null) {
+            return Set.of();
+        }
+
+        return tags.stream()
+                .filter(Objects::nonNull)
+                .map(tag -> tag.trim().toLowerCase(Locale.ROOT))
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    /// Добавление поста в индекс
+    public void indexPost(Post post) {
+        Set<String> names = normalize(post.getTags());
+        if (names.isEmpty()) {
+            return;
+        }
+
+        names.forEach(tagRepository::insertIfAbsent);
+        List<Integer> tagIds = tagRepository.findByNameIn(names).stream().map(Tag::getId).toList();
+
+        tagPostingRepository.insertPostings(post.getId(), post.getDateOfPublication(), tagIds);
+        tagRepository.addPostsCount(tagIds, 1);
+    }
+
+    /// Удаление поста из индекса
+    public void removePost(int postId) {
+        tagRepository.decrementForPost(postId);
+        tagPostingRepository.deleteByPostId(postId);
+    }
+
+    /// Переиндексация поста после изменения тэгов
+    public void reindexPost(Post post) {
+        removePost(post.getId());
+        indexPost(post);
+    }
+
+    /// Удаление из индекса всех постов автора (до удаления самих постов)
+    public void removeAuthorPosts(int authorId) {
+        tagRepository.decrementForAuthor(authorId);
+        tagPostingRepository.deleteByAuthorId(authorId);
+    }
+
+    /// id страницы постов по тэгам после курсора: AND - пост содержит все тэги, OR - хотя бы один
+    public List<Integer> findPostIds(Collection<String> tags, boolean matchAll, PostCursor cursor, int limit) {
+        Set<String> names = normalize(tags);
+        if (names.isEmpty()) {
+            return List.of();
+        }
+
+        List<Tag> found = tagRepository.findByNameIn(names);
+        List<Integer> tagIds = found.stream().map(Tag::getId).toList();
+
+        if (!matchAll) {
+            if (tagIds.isEmpty()) {
+                return List.of();
+            }
+            return tagPostingRepository.findPostIdsWithAnyTag(tagIds, cursor.date(), cursor.id(), limit);
+        }
+
+        // Тэга нет в словаре - ни один пост не содержит все тэги
+        if (found.size() < names.size()) {
+            return List.of();
+        }
+
+        Tag rarest = found.stream().min(Comparator.comparingInt(Tag::getPostsCount)).orElseThrow();
+        return tagPostingRepository.findPostIdsWithAllTags(
+                rarest.getId(), tagIds, tagIds.size(), cursor.date(), cursor.id(), limit
+        );
+    }
+
+    /// N самых популярных тэгов по числу постов
+    public List<TagCountDTO> getPopularTags(int tagsCount) {
+        return tagRepository.findByPostsCountGreaterThanOrderByPostsCountDescIdAsc(0, PageRequest.of(0, tagsCount)).stream()
+                .map(tag -> new TagCountDTO(tag.getName(), tag.getPostsCount()))
+                .toList();
+    }
+
+    /// Построение индекса по тэгам существующих постов
+    @Transactional
+    public void rebuild() {
+        int tags = tagRepository.fillFromPosts();
+        int postings = tagPostingRepository.fillFromPosts();
+        tagRepository.recountPosts();
+
+        log.info("Индекс тэгов построен: тэгов {}, записей {}", tags, postings);
+    }
+}
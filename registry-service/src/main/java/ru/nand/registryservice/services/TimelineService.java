@@ -0,0 +1,184 @@
+package ru.nand.registryservice.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.nand.registryservice.entities.Post;
+import ru.nand.registryservice.entities.User;
+import ru.nand.registryservice.repositories.FollowRepository;
+import ru.nand.registryservice.repositories.PostRepository;
+import ru.nand.registryservice.repositories.TimelineEntryRepository;
+import ru.nand.registryservice.repositories.UserRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/// Лента подписок по модели fan-out on write: при публикации id поста дописывается в ленты подписчиков автора.
+/// Посты авторов с числом подписчиков выше порога не рассылаются, а подмешиваются при чтении.
+/// Такой автор помечается timeline_pull: пока флаг стоит, его посты подмешиваются при чтении даже ниже порога,
+/// а после перехода ниже порога reconcilePullAuthors дозаполняет ленты подписчиков и снимает флаг.
+/// Совпадения ленты и подмешанных постов убираются при чтении по id поста
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final FollowRepository followRepository;
+    private final SchedulerLeaseService schedulerLeaseService;
+
+    /// push - чтение из предрассчитанной ленты, pull - прежняя выборка постов подписок (для сравнения)
+    @Value("${timeline.read-mode:push}")
+    private String readMode;
+
+    @Value("${timeline.window-size:500}")
+    private int windowSize;
+
+    @Value("${timeline.celebrity-threshold:10000}")
+    private int celebrityThreshold;
+
+    @Value("${timeline.rebuild.batch-size:1000}")
+    private int rebuildBatchSize;
+
+    @Value("${timeline.trim.batch-size:1000}")
+    private int trimBatchSize;
+
+    @Value("${timeline.trim.lease-seconds:3600}")
+    private long trimLeaseSeconds;
+
+    @Value("${timeline.reconcile.batch-size:1000}")
+    private int reconcileBatchSize;
+
+    @Value("${timeline.reconcile.lease-seconds:600}")
+    private long reconcileLeaseSeconds;
+
+    /// Рассылка нового поста в ленты подписчиков (в транзакции создания поста)
+    public void onPostCreated(User author, Post post) {
+        if (isCelebrity(author)) {
+            userRepository.markTimelinePull(author.getId());
+            log.debug("Автор {} выше порога подписчиков, пост {} будет подмешиваться при чтении", author.getUsername(), post.getId());
+            return;
+        }
+
+        int delivered = timelineEntryRepository.fanOutPost(author.getId(), post.getId());
+        log.debug("Пост {} добавлен в ленты {} подписчиков", post.getId(), delivered);
+    }
+
+    /// Последние посты автора попадают в ленту нового подписчика сразу
+    public void onFollow(User follower, User author) {
+        if (!isCelebrity(author)) {
+            timelineEntryRepository.addAuthorPosts(follower.getId(), author.getId(), windowSize);
+        } else {
+            userRepository.markTimelinePull(author.getId());
+        }
+    }
+
+    public void onUnfollow(User follower, User author) {
+        timelineEntryRepository.removeAuthorPosts(follower.getId(), author.getId());
+    }
+
+    public void onPostDeleted(int postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    /// Посты удаляемого автора убираются из лент подписчиков, а его собственная лента - целиком
+    public void onUserDeleted(int userId) {
+        timelineEntryRepository.deleteAuthorPosts(userId);
+        timelineEntryRepository.deleteByUserId(userId);
+    }
+
+    /// id страницы ленты подписок: посты с id < beforeId (null - с самого нового) по убыванию id
+    public List<Integer> getTimelinePostIds(int userId, Integer beforeId, int limit) {
+        int before = beforeId != null ? beforeId : Integer.MAX_VALUE;
+        int pageSize = Math.max(1, Math.min(limit, windowSize));
+
+        if ("pull".equals(readMode)) {
+            return postRepository.findIdsByFollower(userId, before, PageRequest.of(0, pageSize));
+        }
+
+        // Предрассчитанная лента + посты "знаменитостей", каждая выборка ограничена размером страницы
+        List<Integer> postIds = new ArrayList<>(timelineEntryRepository.findPostIds(userId, before, pageSize));
+        postIds.addAll(timelineEntryRepository.findCelebrityPostIds(userId, celebrityThreshold, before, pageSize));
+
+        return postIds.stream()
+                .distinct()
+                .sorted(Comparator.reverseOrder())
+                .limit(pageSize)
+                .toList();
+    }
+
+    /// Обрезка лент до окна последних window-size постов порциями пользователей по id, на одной реплике
+    @Scheduled(fixedRate = 60 * 60 * 1000) // 1 Час
+    public void trimTimelines() {
+        if (!schedulerLeaseService.tryAcquire("timeline-trim", Duration.ofSeconds(trimLeaseSeconds))) {
+            log.debug("Обрезку лент подписок выполняет другая реплика");
+            return;
+        }
+
+        int maxId = userRepository.findMaxId();
+        long removed = 0;
+        for (int fromId = 0; fromId < maxId; fromId += trimBatchSize) {
+            removed += timelineEntryRepository.trimTimelines(fromId, fromId + trimBatchSize, windowSize);
+        }
+        log.debug("Обрезка лент подписок: удалено {} записей", removed);
+    }
+
+    /// Дозаполнение лент подписчиков авторов, опустившихся ниже порога "знаменитости", порциями подписчиков.
+    /// Пока ленты дозаполняются, посты автора и подмешиваются при чтении, и рассылаются при записи, поэтому ничего не теряется;
+    /// при сбое флаг остается, и следующий запуск повторяет дозаполнение (вставка идемпотентна)
+    @Scheduled(fixedDelayString = "${timeline.reconcile.interval-ms:600000}")
+    public void reconcilePullAuthors() {
+        if (!schedulerLeaseService.tryAcquire("timeline-reconcile", Duration.ofSeconds(reconcileLeaseSeconds))) {
+            log.debug("Дозаполнение лент подписок выполняет другая реплика");
+            return;
+        }
+
+        int authorsCursor = 0;
+        List<Integer> authorsIds;
+        do {
+            authorsIds = userRepository.findTimelinePullBelow(celebrityThreshold, authorsCursor, reconcileBatchSize);
+            for (int authorId : authorsIds) {
+                long added = 0;
+                int followersCursor = 0;
+                List<Integer> followersIds;
+                do {
+                    followersIds = followRepository.findFollowerIdsPage(authorId, followersCursor, reconcileBatchSize);
+                    if (!followersIds.isEmpty()) {
+                        added += timelineEntryRepository.addAuthorPostsToFollowers(authorId, followersIds, windowSize);
+                        followersCursor = followersIds.getLast();
+                    }
+                } while (followersIds.size() == reconcileBatchSize);
+
+                userRepository.clearTimelinePull(authorId, celebrityThreshold);
+                log.info("Ленты подписчиков автора {} дозаполнены после перехода ниже порога, записей: {}", authorId, added);
+            }
+
+            if (!authorsIds.isEmpty()) {
+                authorsCursor = authorsIds.getLast();
+            }
+        } while (authorsIds.size() == reconcileBatchSize);
+    }
+
+    /// Полная пересборка лент всех пользователей порциями по id (см. TimelineRebuildRunner)
+    public void rebuildTimelines() {
+        int maxId = userRepository.findMaxId();
+        long total = 0;
+
+        for (int fromId = 0; fromId < maxId; fromId += rebuildBatchSize) {
+            timelineEntryRepository.clearTimelines(fromId, fromId + rebuildBatchSize);
+            total += timelineEntryRepository.rebuildTimelines(fromId, fromId + rebuildBatchSize, celebrityThreshold, windowSize);
+        }
+
+        log.info("Ленты подписок пересобраны, записей: {}", total);
+    }
+
+    private boolean isCelebrity(User author) {
+        return author.getSubscribersCount() > celebrityThreshold;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.nand.registryservice.services;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import ru.nand.registryservice.entities.DTO.ResolvedUserDTO;
+import ru.nand.registryservice.grpc.UserLookupServiceGrpc;
+import ru.nand.registryservice.grpc.UserLookupProto.ResolveUsersRequest;
+import ru.nand.registryservice.grpc.UserLookupProto.ResolveUsersResponse;
+import ru.nand.registryservice.grpc.UserLookupProto.ResolvedUser;
+import ru.nand.registryservice.utils.InterServiceJwtGrpcInterceptor;
+
+/// gRPC вариант пакетного получения пользователей (/api/users/resolve) для сервисов чатов.
+/// Как и REST вариант, доступен только с межсервисным токеном
+@Slf4j
+@GrpcService(interceptors = InterServiceJwtGrpcInterceptor.class)
+@RequiredArgsConstructor
+public class UserLookupGrpcService extends UserLookupServiceGrpc.UserLookupServiceImplBase {
+
+    private final UserService userService;
+
+    @Override
+    public void resolveUsers(ResolveUsersRequest request, StreamObserver<ResolveUsersResponse> responseObserver) {
+        log.info("Принял запрос на пакетное получение {} пользователей по gRPC", request.getIdsCount());
+
+        try {
+            ResolveUsersResponse.Builder response = ResolveUsersResponse.newBuilder();
+            for (ResolvedUserDTO user : userService.resolveUsers(request.getIdsList())) {
+                response.addUsers(ResolvedUser.newBuilder()
+                        .setId(user.getId())
+                        .setUsername(user.getUsername())
+                        .setEmail(user.getEmail())
+                        .setBlocked(user.isBlocked())
+                        .build());
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Ошибка пакетного получения пользователей: {}", e.getMessage());
+            responseObserver.onError(
+                    Status.INVALID_ARGUMENT
+                            .withDescription("Ошибка получения пользователей: " + e.getMessage())
+                            .withCause(e)
+                            .asRuntimeException()
+            );
+        }
+    }
+}
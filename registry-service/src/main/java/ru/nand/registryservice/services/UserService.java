@@ -7,18 +7,26 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import ru.nand.registryservice.entities.DTO.ResolvedUserDTO;
 import ru.nand.registryservice.entities.DTO.UserDTO;
 import ru.nand.registryservice.entities.ENUMS.ROLE;
 import ru.nand.registryservice.entities.ENUMS.STATUS;
 import ru.nand.registryservice.entities.User;
 import ru.nand.registryservice.entities.DTO.AccountUserService.AccountPatchDTO;
+import ru.nand.registryservice.entities.DTO.AccountUserService.FollowUserDTO;
+import ru.nand.registryservice.entities.DTO.AccountUserService.FollowsPageDTO;
 import ru.nand.registryservice.entities.DTO.AuthService.RegisterDTO;
+import ru.nand.registryservice.entities.DTO.NotificationsService.FollowerEmailDTO;
+import ru.nand.registryservice.entities.DTO.NotificationsService.FollowerEmailsPageDTO;
 import ru.nand.registryservice.entities.UserSession;
+import ru.nand.registryservice.repositories.FollowRepository;
+import ru.nand.registryservice.repositories.PostRepository;
 import ru.nand.registryservice.repositories.UserRepository;
 import ru.nand.registryservice.repositories.UserSessionRepository;
 import ru.nand.registryservice.utils.JwtUtil;
@@ -26,6 +34,7 @@ import ru.nand.registryservice.utils.RegistryUtil;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,6 +51,10 @@ public class UserService implements UserDetailsService {
     private final ObjectMapper objectMapper;
     private final RegistryUtil registryUtil;
     private final UserSessionRepository userSessionRepository;
+    private final FollowRepository followRepository;
+    private final TagIndexService tagIndexService;
+    private final TimelineService timelineService;
+    private final PostRepository postRepository;
 
     @Value("${jwt.access.jwt.expiration}")
     private long accessTokenExpiration;
@@ -49,6 +62,12 @@ public class UserService implements UserDetailsService {
     @Value("${jwt.refresh.jwt.expiration}")
     private long refreshTokenExpiration;
 
+    @Value("${follows.page.max-size:500}")
+    private int followsMaxPageSize;
+
+    @Value("${users.resolve.max-ids:1000}")
+    private int resolveMaxIds;
+
     public UserSession registerUser(RegisterDTO registerDTO) {
         // Проверяем, существует ли пользователь с таким email или username
         if (userRepository.findByEmail(registerDTO.getEmail()).isPresent()) {
@@ -111,7 +130,7 @@ public class UserService implements UserDetailsService {
     public int getFollowersCount(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Пользователь с именем " + username + " не найден"));
-        return user.getSubscribers().size();
+        return user.getSubscribersCount();
     }
 
     public UserDTO getUserByUsername(String username){
@@ -122,46 +141,70 @@ public class UserService implements UserDetailsService {
                 .id(user.getId())
                 .username(user.getUsername())
                 .email(user.getEmail())
-                .subscribersCount(user.getSubscribers().size())
-                .subscriptionsCount(user.getSubscriptions().size())
-                .postsCount(user.getPosts().size())
+                .subscribersCount(user.getSubscribersCount())
+                .subscriptionsCount(user.getSubscriptionsCount())
+                .postsCount(user.getPostsCount())
                 .build();
     }
 
-    public List<String> getFollowers(String username) {
+    /// Страница подписчиков пользователя: cursor - id последнего подписчика предыдущей страницы (0 - с начала)
+    public FollowsPageDTO getFollowers(String username, int cursor, int limit) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Пользователь с именем " + username + " не найден"));
-        return user.getSubscribers().stream()
-                .map(User::getUsername)
-                .toList();
+
+        int pageSize = normalizePageSize(limit);
+        return toFollowsPage(followRepository.findFollowersPage(user.getId(), cursor, PageRequest.of(0, pageSize)), pageSize);
     }
 
-    public List<String> getFollowing(String username) {
+    /// Страница подписок пользователя: cursor - id последней подписки предыдущей страницы (0 - с начала)
+    public FollowsPageDTO getFollowing(String username, int cursor, int limit) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Пользователь с именем " + username + " не найден"));
-        return user.getSubscriptions().stream()
-                .map(User::getUsername)
-                .toList();
+
+        int pageSize = normalizePageSize(limit);
+        return toFollowsPage(followRepository.findFollowingPage(user.getId(), cursor, PageRequest.of(0, pageSize)), pageSize);
     }
 
+    /// Страница почт подписчиков пользователя для рассылки: cursor - id последнего подписчика предыдущей страницы (0 - с начала)
+    public FollowerEmailsPageDTO getFollowerEmails(int userId, int cursor, int limit) {
+        int pageSize = normalizePageSize(limit);
+        List<FollowerEmailDTO> page = followRepository.findFollowerEmailsPage(userId, cursor, PageRequest.of(0, pageSize));
+
+        Integer nextCursor = page.size() == pageSize ? page.getLast().getId() : null;
+        return new FollowerEmailsPageDTO(page.stream().map(FollowerEmailDTO::getEmail).toList(), nextCursor);
+    }
+
+    private int normalizePageSize(int limit) {
+        return Math.max(1, Math.min(limit, followsMaxPageSize));
+    }
+
+    private FollowsPageDTO toFollowsPage(List<FollowUserDTO> page, int pageSize) {
+        Integer nextCursor = page.size() == pageSize ? page.getLast().getId() : null;
+
+        return new FollowsPageDTO(
+                page.stream().map(FollowUserDTO::getUsername).toList(),
+                nextCursor
+        );
+    }
+
+    /// Идемпотентная подписка: повторная подписка ничего не меняет
+    @Transactional
     public String followUser(String currentUsername, String targetUsername) {
         User currentUser = userRepository.findByUsername(currentUsername)
                 .orElseThrow(() -> new RuntimeException("Пользователь " + currentUsername + " не найден"));
         User targetUser = userRepository.findByUsername(targetUsername)
                 .orElseThrow(() -> new RuntimeException("Пользователь " + targetUsername + " не найден"));
 
-        if (currentUser.getSubscriptions().contains(targetUser)) {
-            throw new RuntimeException("Пользователь уже подписан");
+        // Счетчики меняются только если ребро действительно создано
+        if (followRepository.insertFollow(currentUser.getId(), targetUser.getId()) > 0) {
+            userRepository.addSubscriptionsCount(currentUser.getId(), 1);
+            userRepository.addSubscribersCount(targetUser.getId(), 1);
+            timelineService.onFollow(currentUser, targetUser);
+            log.debug("Пользователь {} подписался на {}", currentUsername, targetUsername);
+        } else {
+            log.debug("Пользователь {} уже подписан на {}", currentUsername, targetUsername);
         }
 
-        currentUser.getSubscriptions().add(targetUser);
-        targetUser.getSubscribers().add(currentUser);
-
-        userRepository.save(currentUser);
-        userRepository.save(targetUser);
-
-        log.debug("Пользователь {} подписался на {}", currentUsername, targetUsername);
-
         return targetUser.getEmail();
     }
 
@@ -172,17 +215,15 @@ public class UserService implements UserDetailsService {
         User targetUser = userRepository.findByUsername(targetUsername)
                 .orElseThrow(() -> new RuntimeException("Пользователь " + targetUsername + " не найден"));
 
-        if (!currentUser.getSubscriptions().contains(targetUser)) {
-            throw new RuntimeException("Пользователь не подписан");
+        // Идемпотентная отписка: счетчики меняются только если ребро действительно удалено
+        if (followRepository.deleteFollow(currentUser.getId(), targetUser.getId()) > 0) {
+            userRepository.addSubscriptionsCount(currentUser.getId(), -1);
+            userRepository.addSubscribersCount(targetUser.getId(), -1);
+            timelineService.onUnfollow(currentUser, targetUser);
+            log.debug("Пользователь {} отписался от {}", currentUsername, targetUsername);
+        } else {
+            log.debug("Пользователь {} не был подписан на {}", currentUsername, targetUsername);
         }
-
-        currentUser.getSubscriptions().remove(targetUser);
-        targetUser.getSubscribers().remove(currentUser);
-
-        userRepository.save(currentUser);
-        userRepository.save(targetUser);
-
-        log.debug("Пользователь {} отписался от {}", currentUsername, targetUsername);
     }
 
     public List<String> getAllUsernames() {
@@ -226,6 +267,8 @@ public class UserService implements UserDetailsService {
         }
 
         UserSession session = activeSessions.getFirst();
+        String oldAccessToken = session.getAccessToken();
+        LocalDateTime oldAccessTokenExpires = session.getAccessTokenExpires();
 
         String newAccessToken = jwtUtil.generateAccessToken(user);
         String newRefreshToken = jwtUtil.generateRefreshToken(user);
@@ -238,13 +281,24 @@ public class UserService implements UserDetailsService {
         session.setLastActivityTime(LocalDateTime.now());
 
         userSessionService.save(session);
+        userSessionService.invalidateCachedSession(oldAccessToken, oldAccessTokenExpires);
 
         log.debug("Сессия пользователя обновлена с новыми токенами: {}", user.getUsername());
 
         return newAccessToken;
     }
 
+    @Transactional
     public void deleteUser(String username) {
+        userRepository.findByUsername(username)
+                .ifPresent(user -> {
+                    userSessionService.revokeUserSessionsAfterCommit(user);
+                    userRepository.subtractFollowCountersOf(user.getId());
+                    followRepository.deleteAllByUserId(user.getId());
+                    postRepository.subtractCommentsCountOf(user.getId());
+                    timelineService.onUserDeleted(user.getId());
+                    tagIndexService.removeAuthorPosts(user.getId());
+                });
         userRepository.deleteByUsername(username);
     }
 
@@ -254,6 +308,21 @@ public class UserService implements UserDetailsService {
                 .getEmail();
     }
 
+    /// Пакетное получение id, username, email и признака блокировки пользователей одним запросом.
+    /// Отсутствующие пользователи в результат не попадают
+    public List<ResolvedUserDTO> resolveUsers(Collection<Integer> usersIds) {
+        if (usersIds.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Integer> distinctIds = new HashSet<>(usersIds);
+        if (distinctIds.size() > resolveMaxIds) {
+            throw new RuntimeException("Слишком много пользователей в запросе: " + distinctIds.size() + ", максимум " + resolveMaxIds);
+        }
+
+        return userRepository.findResolvedByIdIn(distinctIds);
+    }
+
     /// Возвращает JSON ответ из почт пользователей если все пользователи существуют
     public String findUsers(String requestMessage){
         Set<Integer> usersIds;
@@ -264,19 +333,16 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Ошибка при десериализации данных запроса " + e.getMessage());
         }
 
-        Set<String> usersEmails = new HashSet<>();
+        List<ResolvedUserDTO> users = resolveUsers(usersIds);
 
-        try{
-            for(Integer userId : usersIds){
-                usersEmails.add(
-                        userRepository.findById(userId).orElseThrow(()-> new RuntimeException("Пользователь не найден")).getEmail()
-                );
-            }
-        } catch (RuntimeException e){ // Если хотя бы один из пользователей не найден - бросаем исключение в контроллер
-            log.warn("Ошибка при поиске пользователей: {}", e.getMessage());
-            throw new RuntimeException("Ошибка при поиске пользователей: " + e.getMessage());
+        // Если хотя бы один из пользователей не найден - бросаем исключение в контроллер
+        if (users.size() != usersIds.size()) {
+            log.warn("Найдено {} из {} пользователей", users.size(), usersIds.size());
+            throw new RuntimeException("Ошибка при поиске пользователей: Пользователь не найден");
         }
 
+        Set<String> usersEmails = users.stream().map(ResolvedUserDTO::getEmail).collect(Collectors.toSet());
+
         // Собираем в JSON
         String responseMessage;
         try{
@@ -307,20 +373,11 @@ public class UserService implements UserDetailsService {
     }
 
     /// Получение N аккаунтов с наибольшим количеством подписчиков (количество упорядочено от большего к меньшему)
-    /// если пользователей меньше N то вернет всех доступных
-    public String getPopularAccounts(int accountsCount) {
+    /// если пользователей меньше N то вернет всех доступных, page - номер страницы размером N
+    public String getPopularAccounts(int accountsCount, int page) {
         try {
-            List<User> users = userRepository.findAll();
-
-            // Сортируем пользователей по количеству подписчиков в порядке убывания
-            List<User> sortedUsers = users.stream()
-                    .sorted((u1, u2) -> Integer.compare(u2.getSubscribers().size(), u1.getSubscribers().size()))
-                    .toList();
-
-            // Берем первые accountsCount пользователей
-            List<User> topUsers = sortedUsers.stream()
-                    .limit(accountsCount)
-                    .toList();
+            // Сортировка и LIMIT выполняются в БД по индексу на счетчике подписчиков
+            List<User> topUsers = userRepository.findAllByOrderBySubscribersCountDescIdAsc(PageRequest.of(page, accountsCount));
 
             // Преобразуем список User в список UserDTO
             return registryUtil.enrichUserDTOs(topUsers);
@@ -348,9 +405,9 @@ public class UserService implements UserDetailsService {
                             .id(user.getId())
                             .username(user.getUsername())
                             .email(user.getEmail())
-                            .subscribersCount(user.getSubscribers().size())
-                            .subscriptionsCount(user.getSubscriptions().size())
-                            .postsCount(user.getPosts().size())
+                            .subscribersCount(user.getSubscribersCount())
+                            .subscriptionsCount(user.getSubscriptionsCount())
+                            .postsCount(user.getPostsCount())
                             .build()).toList();
 
             // Соберем в JSON
@@ -1,9 +1,24 @@
 package ru.nand.registryservice.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.nand.registryservice.entities.DTO.RevokedTokenDTO;
+import ru.nand.registryservice.entities.DTO.SessionEventDTO;
+import ru.nand.registryservice.entities.DTO.SessionSweepRowDTO;
 import ru.nand.registryservice.entities.ENUMS.ROLE;
 import ru.nand.registryservice.entities.ENUMS.STATUS;
 import ru.nand.registryservice.entities.User;
@@ -12,10 +27,13 @@ import ru.nand.registryservice.repositories.UserRepository;
 import ru.nand.registryservice.repositories.UserSessionRepository;
 import ru.nand.registryservice.utils.JwtUtil;
 import ru.nand.registryservice.utils.RegistryUtil;
+import ru.nand.registryservice.utils.TokenHashUtil;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -24,6 +42,16 @@ public class UserSessionService {
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
     private final RegistryUtil registryUtil;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SessionActivityService sessionActivityService;
+
+    /// Кэш статусов сессий: хэш access токена -> (userId, статус, истечение access)
+    private final Cache<String, CachedSession> sessionStatusCache;
+
+    /// Идентификатор реплики, чтобы не обрабатывать собственные события из session-events-topic
+    private final String instanceId = UUID.randomUUID().toString();
 
     @Value("${jwt.access.jwt.expiration}")
     private long accessTokenExpiration;
@@ -31,12 +59,48 @@ public class UserSessionService {
     @Value("${jwt.refresh.jwt.expiration}")
     private long refreshTokenExpiration;
 
+    @Value("${sessions.sweep.batch-size:1000}")
+    private int sweepBatchSize;
+
+    /// Прогресс массовой обработки сессий (число сессий по переходам)
+    private final Counter inactivatedSessionsCounter;
+    private final Counter revokedSessionsCounter;
+    private final Counter deletedSessionsCounter;
+
+    public record CachedSession(int userId, STATUS status, LocalDateTime accessTokenExpires) {
+    }
+
     @Autowired
-    public UserSessionService(UserSessionRepository userSessionRepository, JwtUtil jwtUtil, UserRepository userRepository, RegistryUtil registryUtil) {
+    public UserSessionService(UserSessionRepository userSessionRepository,
+                              JwtUtil jwtUtil,
+                              UserRepository userRepository,
+                              RegistryUtil registryUtil,
+                              KafkaTemplate<String, String> kafkaTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              SessionActivityService sessionActivityService,
+                              @Value("${sessions.cache.max-size}") long cacheMaxSize,
+                              @Value("${sessions.cache.ttl-seconds}") long cacheTtlSeconds) {
         this.userSessionRepository = userSessionRepository;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
         this.registryUtil = registryUtil;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.sessionActivityService = sessionActivityService;
+
+        // TTL ограничивает время устаревания записи, если событие от другой реплики потерялось
+        this.sessionStatusCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessionStatusCache, "sessionStatusCache");
+
+        this.inactivatedSessionsCounter = meterRegistry.counter("sessions.sweep.processed", "transition", "inactivated");
+        this.revokedSessionsCounter = meterRegistry.counter("sessions.sweep.processed", "transition", "revoked");
+        this.deletedSessionsCounter = meterRegistry.counter("sessions.sweep.processed", "transition", "deleted");
     }
 
     /// Создание новой сессия для пользователя
@@ -68,13 +132,16 @@ public class UserSessionService {
 
         log.debug("Создана сессия для пользователя: {}", user.getUsername());
 
-        return userSessionRepository.save(session);
+        UserSession savedSession = userSessionRepository.save(session);
+        cacheAndPublish(savedSession);
+
+        return savedSession;
     }
 
     /// Обновление access токена
     public UserSession refreshAccessToken(String refreshToken) {
         // Проверка на наличие активной сессии
-        UserSession session = userSessionRepository.findByRefreshToken(refreshToken)
+        UserSession session = userSessionRepository.findByRefreshTokenHash(TokenHashUtil.sha256Hex(refreshToken))
                 .orElseThrow(() -> new RuntimeException("Сессия не найдена"));
 
         if (session.getStatus() != STATUS.ACTIVE) {
@@ -102,20 +169,26 @@ public class UserSessionService {
             session.setRefreshTokenExpires(LocalDateTime.now().plus(Duration.ofMillis(refreshTokenExpiration)));
         }
 
-        // Обновляем access токен
+        // Обновляем access токен, старый больше не должен находиться в кэше
+        String oldAccessToken = session.getAccessToken();
+        LocalDateTime oldAccessTokenExpires = session.getAccessTokenExpires();
         session.setAccessToken(jwtUtil.generateAccessToken(session.getUser()));
         session.setAccessTokenExpires(LocalDateTime.now().plus(Duration.ofMillis(accessTokenExpiration)));
         session.setLastActivityTime(LocalDateTime.now());
 
         log.debug("Access токен обновлен для пользователя: {}", session.getUser().getUsername());
 
-        return userSessionRepository.save(session);
+        UserSession savedSession = userSessionRepository.save(session);
+        invalidateCachedSession(oldAccessToken, oldAccessTokenExpires);
+        cacheAndPublish(savedSession);
+
+        return savedSession;
     }
 
     /// Обновление refresh токена
     public UserSession refreshRefreshToken(String refreshToken){
         // Проверка на наличие активной сессии
-        UserSession session = userSessionRepository.findByRefreshToken(refreshToken)
+        UserSession session = userSessionRepository.findByRefreshTokenHash(TokenHashUtil.sha256Hex(refreshToken))
                 .orElseThrow(() -> new RuntimeException("Сессия не найдена"));
 
         if(session.getStatus() != STATUS.ACTIVE){
@@ -147,6 +220,7 @@ public class UserSessionService {
 
         log.warn("Все активные сессии пользователя {} заблокированы.", user.getUsername());
         userSessionRepository.saveAll(sessions);
+        sessions.forEach(this::cacheAndPublish);
 
         try{
             // Уведомление администраторам
@@ -160,6 +234,31 @@ public class UserSessionService {
         }
     }
 
+    /// Отзыв активных сессий пользователя перед его удалением. Сессии удаляются каскадом вместе с пользователем,
+    /// поэтому токены запоминаются заранее, а кэш и остальные сервисы оповещаются только после коммита удаления
+    public void revokeUserSessionsAfterCommit(User user) {
+        List<Map.Entry<String, LocalDateTime>> revokedTokens = userSessionRepository.findByUserAndStatus(user, STATUS.ACTIVE).stream()
+                .map(session -> Map.entry(session.getAccessToken(), session.getAccessTokenExpires()))
+                .toList();
+        if (revokedTokens.isEmpty()) {
+            return;
+        }
+
+        Runnable revoke = () -> revokedTokens.forEach(token -> invalidateCachedSession(token.getKey(), token.getValue()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            revoke.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revoke.run();
+                log.debug("Отозвано {} сессий удаленного пользователя {}", revokedTokens.size(), user.getUsername());
+            }
+        });
+    }
+
     /// Наличие заблокированных сессий
     public boolean hasBlockedSessions(User user) {
         List<UserSession> blockedSessions = userSessionRepository.findByUserAndStatus(user, STATUS.BLOCKED);
@@ -168,7 +267,7 @@ public class UserSessionService {
 
     /// Деактивация сессии по access токену
     public void deactivateSessionByAccessToken(String accessToken) {
-        UserSession session = userSessionRepository.findByAccessToken(accessToken)
+        UserSession session = userSessionRepository.findByAccessTokenHash(TokenHashUtil.sha256Hex(accessToken))
                 .orElseThrow(() -> new RuntimeException("Сессия не найдена"));
 
         // Лишний раз проверяем на активность
@@ -182,68 +281,63 @@ public class UserSessionService {
         log.debug("Сессия с accessToken {} деактивирована для пользователя {}", accessToken, session.getUser().getUsername());
 
         userSessionRepository.save(session);
+        cacheAndPublish(session);
     }
 
     /// Поиск сессии по access токену
     public UserSession getSessionByAccessToken(String accessToken) {
-        return userSessionRepository.findByAccessToken(accessToken)
+        return userSessionRepository.findByAccessTokenHash(TokenHashUtil.sha256Hex(accessToken))
                 .orElseThrow(() -> new RuntimeException("Сессия не найдена"));
     }
 
+    /// Проверка активности сессии по access токену (сначала кэш, при промахе - БД)
+    public boolean isSessionActive(String accessToken) {
+        String tokenHash = TokenHashUtil.sha256Hex(accessToken);
+
+        CachedSession cachedSession = sessionStatusCache.get(tokenHash, hash ->
+                userSessionRepository.findByAccessTokenHash(hash)
+                        .map(this::toCachedSession)
+                        .orElse(null) // Отсутствующие сессии не кэшируем
+        );
+
+        if (cachedSession == null) {
+            throw new RuntimeException("Сессия не найдена");
+        }
+
+        return cachedSession.status() == STATUS.ACTIVE;
+    }
+
     /// Пометка неактивных сессий на отзыв
     public void markSessionsAsRevoked() {
         // Порог - 1 День
         LocalDateTime threshold = LocalDateTime.now().minusDays(1);
 
-        List<UserSession> inactiveSessions = userSessionRepository.findByStatusAndLastActivityTimeBefore(STATUS.INACTIVE, threshold);
-
-        if(!inactiveSessions.isEmpty()){
-            log.debug("Найдено {} неактивных сессий для пометки на отзыв", inactiveSessions.size());
-
-            inactiveSessions.forEach(session -> {
-                session.setStatus(STATUS.REVOKED);
-                session.setLastActivityTime(LocalDateTime.now());
-            });
-
-            userSessionRepository.saveAll(inactiveSessions);
-            log.debug("{} сессий были помечены как REVOKED", inactiveSessions.size());
-        } else {
-            log.debug("Неактивных сессий для пометки на отзыв не найдено");
-        }
+        long revoked = sweepStatus(STATUS.INACTIVE, STATUS.REVOKED, threshold, revokedSessionsCounter);
+        log.debug("{} сессий были помечены как REVOKED", revoked);
     }
 
-    /// Удаление сессий, помеченных на отзыв
+    /// Удаление сессий, помеченных на отзыв, порциями по sweepBatchSize строк
     public void deleteRevokedSessions(){
         LocalDateTime threshold = LocalDateTime.now().minusDays(1);
+        long total = 0;
 
-        List<UserSession> revokedSessions = userSessionRepository.findByStatusAndLastActivityTimeBefore(STATUS.REVOKED, threshold);
+        // Кэш не трогаем: отозванная запись в кэше и так запрещает доступ и истечет по TTL
+        int deleted;
+        do {
+            deleted = userSessionRepository.deleteChunk(STATUS.REVOKED.name(), threshold, sweepBatchSize);
+            total += deleted;
+            deletedSessionsCounter.increment(deleted);
+        } while (deleted == sweepBatchSize);
 
-        if(!revokedSessions.isEmpty()){
-            log.info("Найдено {} сессий для удаления", revokedSessions.size());
-            userSessionRepository.deleteAll(revokedSessions);
-            log.debug("{} сессий было удалено", revokedSessions.size());
-        } else {
-            log.debug("Сессий для удаления не найдено");
-        }
+        log.info("Удалено {} отозванных сессий", total);
     }
 
     public void handleInactiveSessions() {
         LocalDateTime threshold = LocalDateTime.now().minusHours(2);
-        List<UserSession> activeSessions = userSessionRepository.findByStatusAndLastActivityTimeBefore(STATUS.ACTIVE, threshold);
-
-        if (!activeSessions.isEmpty()) {
-            log.info("Найдено {} активных сессий для перевода в статус INACTIVE", activeSessions.size());
-
-            activeSessions.forEach(session -> {
-                session.setStatus(STATUS.INACTIVE);
-                session.setLastActivityTime(LocalDateTime.now()); // По это сути имитация логаута пользователя, поэтому установим LAT
-            });
 
-            userSessionRepository.saveAll(activeSessions);
-            log.info("Активные сессии успешно переведены в статус INACTIVE");
-        } else {
-            log.debug("Активных сессий для перевода в статус INACTIVE не найдено");
-        }
+        // По сути имитация логаута пользователя, поэтому время последней активности выставляется в момент перевода
+        long inactivated = sweepStatus(STATUS.ACTIVE, STATUS.INACTIVE, threshold, inactivatedSessionsCounter);
+        log.info("{} активных сессий переведены в статус INACTIVE", inactivated);
     }
 
     /// Обработка INACTIVE и REVOKED сессий
@@ -252,23 +346,57 @@ public class UserSessionService {
         deleteRevokedSessions();
     }
 
-    /// Обновление времени последней активности для активной сессии пользователя
-    public void updateLastActivityTime(User user) {
-        // Поиск активной сессии пользователя
-        List<UserSession> activeSessions = userSessionRepository.findByUserAndStatus(user, STATUS.ACTIVE);
+    /// Перевод сессий из статуса from в статус to порциями: выборка id и хэшей токенов, затем один UPDATE на порцию.
+    /// Сущности сессий не загружаются, кэш и остальные реплики обновляются по хэшам из порции
+    private long sweepStatus(STATUS from, STATUS to, LocalDateTime threshold, Counter progressCounter) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long total = 0;
+
+        List<SessionSweepRowDTO> chunk;
+        do {
+            chunk = userSessionRepository.findSweepChunk(from, threshold, PageRequest.of(0, sweepBatchSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
 
-        if (activeSessions.isEmpty()) {
-            log.warn("Активная сессия для пользователя {} не найдена.", user.getUsername());
-            throw new RuntimeException("Активная сессия не найдена");
-        }
+            List<Long> ids = chunk.stream().map(SessionSweepRowDTO::getId).toList();
+            int updated = userSessionRepository.updateStatusByIds(ids, from, to, LocalDateTime.now());
+            chunk.forEach(row -> applySweptStatus(row, to));
 
-        UserSession session = activeSessions.getFirst();
+            total += updated;
+            progressCounter.increment(updated);
+            log.debug("Порция сессий {} -> {}: обновлено {}, всего {}", from, to, updated, total);
+        } while (chunk.size() == sweepBatchSize);
 
-        session.setLastActivityTime(LocalDateTime.now());
+        sample.stop(meterRegistry.timer("sessions.sweep.duration", "from", from.name(), "to", to.name()));
+        return total;
+    }
 
-        userSessionRepository.save(session);
+    /// Обновление кэша после массового перевода: по еще действующим токенам рассылается событие, истекшие просто убираются из кэша
+    private void applySweptStatus(SessionSweepRowDTO row, STATUS status) {
+        if (row.getAccessTokenHash() == null) {
+            return;
+        }
+
+        if (row.getAccessTokenExpires() == null || row.getAccessTokenExpires().isBefore(LocalDateTime.now())) {
+            sessionStatusCache.invalidate(row.getAccessTokenHash());
+            return;
+        }
 
-        log.debug("Время последней активности обновлено для пользователя: {}", user.getUsername());
+        CachedSession cachedSession = new CachedSession(
+                row.getUserId() != null ? row.getUserId() : 0,
+                status,
+                row.getAccessTokenExpires()
+        );
+        sessionStatusCache.put(row.getAccessTokenHash(), cachedSession);
+        publishSessionEvent(row.getAccessTokenHash(), cachedSession);
+    }
+
+    /// Обновление времени последней активности для активной сессии пользователя.
+    /// Время попадает в буфер SessionActivityService и записывается в БД при ближайшем сбросе
+    public void updateLastActivityTime(User user) {
+        sessionActivityService.touch(user.getId());
+        log.debug("Время последней активности отмечено для пользователя: {}", user.getUsername());
     }
 
     /// Сохранение сессии (для UserService)
@@ -281,4 +409,74 @@ public class UserSessionService {
         return userSessionRepository.findByUserAndStatus(user, status);
     }
 
+    /// Удаление сессии из кэша по access токену на всех репликах (например, после замены токенов в UserService)
+    /// Для остальных сервисов событие означает отзыв токена до момента его истечения
+    public void invalidateCachedSession(String accessToken, LocalDateTime accessTokenExpires) {
+        String tokenHash = TokenHashUtil.sha256Hex(accessToken);
+        if (tokenHash == null) {
+            return;
+        }
+
+        sessionStatusCache.invalidate(tokenHash);
+        publishSessionEvent(tokenHash, new CachedSession(0, null, accessTokenExpires));
+    }
+
+    /// Снимок отозванных, но еще не истекших access токенов (для холодного старта сервисов)
+    public List<RevokedTokenDTO> getRevokedTokens() {
+        return userSessionRepository.findRevokedTokens(STATUS.ACTIVE, LocalDateTime.now());
+    }
+
+    /// Применение события сессии от другой реплики registry-service
+    public void applySessionEvent(SessionEventDTO sessionEventDTO) {
+        if (instanceId.equals(sessionEventDTO.getInstanceId())) {
+            return;
+        }
+
+        // Событие без статуса - токен больше не принадлежит сессии
+        if (sessionEventDTO.getStatus() == null) {
+            sessionStatusCache.invalidate(sessionEventDTO.getTokenHash());
+            return;
+        }
+
+        // Только обновляем уже закэшированные записи, остальные подтянутся из БД при промахе
+        sessionStatusCache.asMap().computeIfPresent(sessionEventDTO.getTokenHash(), (hash, cachedSession) -> new CachedSession(
+                sessionEventDTO.getUserId(),
+                sessionEventDTO.getStatus(),
+                sessionEventDTO.getAccessTokenExpires()
+        ));
+        log.debug("Применено событие сессии пользователя {}: {}", sessionEventDTO.getUserId(), sessionEventDTO.getStatus());
+    }
+
+    /// Обновление кэша и рассылка изменения статуса сессии остальным репликам
+    private void cacheAndPublish(UserSession session) {
+        String tokenHash = TokenHashUtil.sha256Hex(session.getAccessToken());
+        if (tokenHash == null) {
+            return;
+        }
+
+        CachedSession cachedSession = toCachedSession(session);
+        sessionStatusCache.put(tokenHash, cachedSession);
+        publishSessionEvent(tokenHash, cachedSession);
+    }
+
+    private void publishSessionEvent(String tokenHash, CachedSession cachedSession) {
+        SessionEventDTO sessionEventDTO = SessionEventDTO.builder()
+                .tokenHash(tokenHash)
+                .userId(cachedSession.userId())
+                .status(cachedSession.status())
+                .accessTokenExpires(cachedSession.accessTokenExpires())
+                .instanceId(instanceId)
+                .build();
+
+        try {
+            kafkaTemplate.send("session-events-topic", tokenHash, objectMapper.writeValueAsString(sessionEventDTO));
+        } catch (JsonProcessingException e) {
+            log.error("Ошибка при сериализации события сессии: {}", e.getMessage());
+        }
+    }
+
+    private CachedSession toCachedSession(UserSession session) {
+        return new CachedSession(session.getUser().getId(), session.getStatus(), session.getAccessTokenExpires());
+    }
+
 }
@@ -0,0 +1,82 @@
+package ru.nand.registryservice.utils;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/// Одноразовый перенос подписок из user_subscribers / user_subscriptions в follows.
+/// После переноса старые таблицы копируются в *_legacy (без внешних ключей на users) и удаляются, чтобы перенос не повторялся
+/// (иначе отписки, сделанные после миграции, восстановились бы при следующем старте).
+/// Выполняется до запуска веб- и gRPC-серверов (после создания схемы ddl-auto), одной репликой за раз (MigrationLock),
+/// поэтому подписки, отписки и пересчет счетчиков (UserCountersReconciliation) уже видят перенесенные данные
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class FollowsMigration {
+    private static final String NAME = "follows";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MigrationLock migrationLock;
+
+    @Autowired
+    public FollowsMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MigrationLock migrationLock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.migrationLock = migrationLock;
+    }
+
+    @PostConstruct
+    public void migrateLegacyFollows() {
+        if (!legacyTablesExist()) {
+            log.debug("Старых таблиц подписок нет, перенос не требуется");
+            return;
+        }
+
+        // Перенос и удаление старых таблиц - одна транзакция, повторно проверяется под блокировкой
+        migrationLock.runExclusively(NAME, () -> transactionTemplate.executeWithoutResult(status -> {
+            if (legacyTablesExist()) {
+                migrate();
+            }
+        }));
+    }
+
+    private void migrate() {
+        int migrated = 0;
+
+        // user_subscriptions: user_id подписан на subscription_id
+        if (tableExists("user_subscriptions")) {
+            migrated += jdbcTemplate.update(
+                    "INSERT INTO follows (follower_id, followee_id, created_at) " +
+                    "SELECT user_id, subscription_id, now() FROM user_subscriptions ON CONFLICT DO NOTHING");
+            archiveLegacyTable("user_subscriptions");
+        }
+
+        // user_subscribers: subscriber_id подписан на user_id
+        if (tableExists("user_subscribers")) {
+            migrated += jdbcTemplate.update(
+                    "INSERT INTO follows (follower_id, followee_id, created_at) " +
+                    "SELECT subscriber_id, user_id, now() FROM user_subscribers ON CONFLICT DO NOTHING");
+            archiveLegacyTable("user_subscribers");
+        }
+
+        log.info("Перенесено подписок в follows: {}", migrated);
+    }
+
+    private void archiveLegacyTable(String tableName) {
+        jdbcTemplate.execute("CREATE TABLE " + tableName + "_legacy AS SELECT * FROM " + tableName);
+        jdbcTemplate.execute("DROP TABLE " + tableName);
+    }
+
+    private boolean legacyTablesExist() {
+        return tableExists("user_subscriptions") || tableExists("user_subscribers");
+    }
+
+    private boolean tableExists(String tableName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, tableName));
+    }
+}
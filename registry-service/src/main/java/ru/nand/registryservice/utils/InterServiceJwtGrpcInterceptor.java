@@ -0,0 +1,42 @@
+package ru.nand.registryservice.utils;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/// Проверка межсервисного токена для gRPC методов, аналог InterServiceJwtRequestFilter.
+/// Токен передается в метаданных под тем же именем, что и HTTP заголовок (в нижнем регистре)
+@Slf4j
+@Component
+public class InterServiceJwtGrpcInterceptor implements ServerInterceptor {
+    private final JwtUtil jwtUtil;
+    private final Metadata.Key<String> headerKey;
+
+    @Autowired
+    public InterServiceJwtGrpcInterceptor(JwtUtil jwtUtil, @Value("${interservice.header.name}") String headerName) {
+        this.jwtUtil = jwtUtil;
+        this.headerKey = Metadata.Key.of(headerName.toLowerCase(Locale.ROOT), Metadata.ASCII_STRING_MARSHALLER);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        String bearer = headers.get(headerKey);
+
+        if (bearer == null || !bearer.startsWith("Bearer ") || jwtUtil.parseInterServiceJwt(bearer.substring(7)) == null) {
+            log.warn("Отклонен gRPC вызов {} без действительного межсервисного токена", call.getMethodDescriptor().getFullMethodName());
+            call.close(Status.UNAUTHENTICATED.withDescription("Недействительный межсервисный токен"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        return next.startCall(call, headers);
+    }
+}
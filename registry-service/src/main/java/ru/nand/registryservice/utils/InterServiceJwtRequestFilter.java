@@ -1,5 +1,6 @@
 package ru.nand.registryservice.utils;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,9 +34,11 @@ public class InterServiceJwtRequestFilter extends OncePerRequestFilter {
             String interServiceJwt = jwtUtil.resolveInterServiceToken(request);
 
             if(interServiceJwt != null){
-                if(jwtUtil.validateInterServiceJwt(interServiceJwt)){
-                    String serviceName = jwtUtil.extractServiceName(interServiceJwt);
-                    String role = jwtUtil.extractRoleFromInterServiceJwt(interServiceJwt);
+                Claims claims = jwtUtil.parseInterServiceJwt(interServiceJwt);
+
+                if(claims != null){
+                    String serviceName = claims.getSubject();
+                    String role = claims.get("service_role", String.class);
 
                     if(serviceName != null && SecurityContextHolder.getContext().getAuthentication() == null){
                         UserDetails userDetails = new User(
@@ -1,10 +1,14 @@
 package ru.nand.registryservice.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +21,7 @@ import ru.nand.registryservice.entities.User;
 import ru.nand.registryservice.services.UserService;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Function;
 
@@ -38,12 +43,33 @@ public class JwtUtil {
     @Value("${jwt.refresh.jwt.expiration}")
     private long refreshTokenExpiration;
 
-    private Key getSigningKey(){
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
-    }
-
-    private Key getServiceKey(){
-        return Keys.hmacShaKeyFor(serviceSecret.getBytes());
+    @Value("${jwt.expiration}")
+    private long interServiceTokenExpiration;
+
+    // Ключи и парсеры неизменяемы и потокобезопасны, поэтому собираются один раз при старте
+    private Key signingKey;
+    private Key serviceKey;
+    private JwtParser jwtParser;
+    private JwtParser interServiceJwtParser;
+
+    /// Уже проверенные межсервисные токены -> их claims. Сервисы переиспользуют свой токен до ротации,
+    /// поэтому подпись одного и того же токена не проверяется повторно на каждый запрос
+    private Cache<String, Claims> validatedInterServiceTokens;
+
+    @PostConstruct
+    private void init(){
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        serviceKey = Keys.hmacShaKeyFor(serviceSecret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        interServiceJwtParser = Jwts.parserBuilder()
+                .setSigningKey(serviceKey)
+                .build();
+        validatedInterServiceTokens = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(interServiceTokenExpiration))
+                .build();
     }
 
     public String extractServiceName(String token){
@@ -56,19 +82,11 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     private Claims extractAllClaimsFromInterServiceToken(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(getServiceKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return interServiceJwtParser.parseClaimsJws(token).getBody();
     }
 
     /// Генерация access токена
@@ -100,19 +118,17 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString()) // Уникальность токена (и его хэша) даже при выдаче в одну секунду
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /// Валидация истечения токена
     public boolean validateExpirationToken(String token) {
         try{
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            jwtParser.parseClaimsJws(token);
 
             return true;
         } catch (ExpiredJwtException e){
@@ -137,13 +153,29 @@ public class JwtUtil {
         return extractClaimFromInterServiceToken(token, claims -> claims.get("service_role", String.class));
     }
 
+    /// Разбор межсервисного токена с запоминанием результата до истечения токена, null - токен недействителен
+    public Claims parseInterServiceJwt(String interServiceJwt) {
+        Claims claims = validatedInterServiceTokens.getIfPresent(interServiceJwt);
+        if(claims != null && claims.getExpiration().after(new Date())){
+            return claims;
+        }
+
+        try{
+            claims = interServiceJwtParser.parseClaimsJws(interServiceJwt).getBody();
+            validatedInterServiceTokens.put(interServiceJwt, claims);
+
+            return claims;
+        } catch (Exception e){
+            validatedInterServiceTokens.invalidate(interServiceJwt);
+            log.error("Ошибка валидации токена: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /// Валидация межсервисного токена
     public boolean validateInterServiceJwt(String interServiceJwt) {
         try{
-            Jwts.parserBuilder()
-                    .setSigningKey(getServiceKey())
-                    .build()
-                    .parseClaimsJws(interServiceJwt);
+            interServiceJwtParser.parseClaimsJws(interServiceJwt);
 
             return true;
         } catch (Exception e){
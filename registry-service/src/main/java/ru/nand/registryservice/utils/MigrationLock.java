@@ -0,0 +1,69 @@
+package ru.nand.registryservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/// Выполнение стартовых миграций одной репликой за раз: advisory lock Postgres удерживается на отдельном соединении,
+/// пока идет миграция, остальные реплики ждут его и затем видят уже выполненную миграцию.
+/// Блокировка опрашивается через pg_try_advisory_lock, а не ожидается в pg_advisory_lock: ожидающий запрос
+/// держал бы снимок, завершения которого ждет CREATE INDEX CONCURRENTLY на реплике-владельце
+@Slf4j
+@Component
+public class MigrationLock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${migrations.lock.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Autowired
+    public MigrationLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void runExclusively(String name, Runnable migration) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            acquire(connection, name);
+            try {
+                migration.run();
+            } finally {
+                call(connection, "SELECT pg_advisory_unlock(hashtext(?))", name);
+            }
+            return null;
+        });
+    }
+
+    private void acquire(Connection connection, String name) throws SQLException {
+        boolean waiting = false;
+        while (!call(connection, "SELECT pg_try_advisory_lock(hashtext(?))", name)) {
+            if (!waiting) {
+                log.info("Миграцию {} выполняет другая реплика, ожидание", name);
+                waiting = true;
+            }
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Ожидание миграции " + name + " прервано");
+            }
+        }
+    }
+
+    private boolean call(Connection connection, String sql, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
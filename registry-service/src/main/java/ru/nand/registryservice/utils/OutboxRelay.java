@@ -0,0 +1,40 @@
+package ru.nand.registryservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.nand.registryservice.services.OutboxService;
+
+/// Фоновая отправка событий из outbox_events в Kafka.
+/// За один запуск выбираются порции, пока они заполнены целиком, но не больше max-batches-per-run
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxService outboxService;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Autowired
+    public OutboxRelay(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (outboxService.relayBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Ошибка при отправке событий из outbox: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.nand.registryservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.nand.registryservice.repositories.PostRepository;
+import ru.nand.registryservice.services.SchedulerLeaseService;
+
+import java.time.Duration;
+
+/// Пересчет денормализованных счетчиков постов (лайки, комментарии) по фактическим данным (post_likes, comments).
+/// При старте заполняет счетчики для постов, созданных до появления колонок, затем исправляет расхождения.
+/// Выполняется одной репликой под арендой; буфер лайков тоже пересчитывает счетчики по post_likes,
+/// поэтому сверка и сброс буфера не задваивают лайки
+@Slf4j
+@Component
+public class PostCountersReconciliation {
+
+    private final PostRepository postRepository;
+    private final SchedulerLeaseService schedulerLeaseService;
+
+    @Value("${posts.counters.reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${posts.counters.reconciliation.lease-seconds:3600}")
+    private long leaseSeconds;
+
+    @Autowired
+    public PostCountersReconciliation(PostRepository postRepository, SchedulerLeaseService schedulerLeaseService) {
+        this.postRepository = postRepository;
+        this.schedulerLeaseService = schedulerLeaseService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcileCounters();
+    }
+
+    @Scheduled(cron = "${posts.counters.reconciliation.cron:0 45 3 * * *}")
+    public void reconcileCounters() {
+        if (!schedulerLeaseService.tryAcquire("posts-counters-reconcile", Duration.ofSeconds(leaseSeconds))) {
+            log.debug("Сверку счетчиков постов выполняет другая реплика");
+            return;
+        }
+
+        int maxId = postRepository.findMaxId();
+        long total = 0;
+
+        for (int fromId = 0; fromId < maxId; fromId += batchSize) {
+            total += postRepository.reconcileCounters(fromId, fromId + batchSize);
+        }
+
+        if (total > 0) {
+            log.info("Исправлены счетчики для {} постов", total);
+        } else {
+            log.debug("Расхождений в счетчиках постов не найдено");
+        }
+    }
+}
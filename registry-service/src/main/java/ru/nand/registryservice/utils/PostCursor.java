@@ -0,0 +1,45 @@
+package ru.nand.registryservice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/// Курсор страницы по (дата, id): позиция последнего элемента предыдущей страницы.
+/// Посты листаются в порядке (date_of_publication DESC, id DESC), комментарии - в порядке (date_of_creation, id)
+public record PostCursor(LocalDateTime date, int id) {
+
+    /// Позиция "до самого нового элемента" - первая страница при чтении по убыванию
+    public static final PostCursor FIRST = new PostCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Integer.MAX_VALUE);
+
+    /// Позиция "до самого старого элемента" - первая страница при чтении по возрастанию
+    public static final PostCursor OLDEST = new PostCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    /// Разбор курсора из запроса, null или пустая строка - первая страница
+    public static PostCursor decode(String cursor) {
+        return decode(cursor, FIRST);
+    }
+
+    /// Разбор курсора из запроса, null или пустая строка - позиция first
+    public static PostCursor decode(String cursor, PostCursor first) {
+        if (cursor == null || cursor.isBlank()) {
+            return first;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new PostCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1))
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    /// Непрозрачное для клиента представление курсора
+    public String encode() {
+        String value = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
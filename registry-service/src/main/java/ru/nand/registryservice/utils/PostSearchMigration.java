@@ -0,0 +1,124 @@
+package ru.nand.registryservice.utils;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.nand.registryservice.repositories.CompletedMigrationRepository;
+import ru.nand.registryservice.repositories.PostRepository;
+
+import java.util.List;
+
+/// Структуры полнотекстового поиска по постам, которые не создает ddl-auto:
+/// колонка posts.search_vector (русская и английская конфигурации) с GIN индексом и триграммный GIN индекс для поиска по подстроке.
+/// Выполняется до запуска веб- и gRPC-серверов (после создания схемы ddl-auto), одной репликой за раз (MigrationLock).
+/// Колонка добавляется без перезаписи таблицы и заполняется триггером при вставке и изменении текста,
+/// существующие посты дозаполняются порциями, индексы строятся CONCURRENTLY без блокировки записи в posts
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class PostSearchMigration {
+    private static final String NAME = "posts-search-vector";
+
+    private static final String SEARCH_VECTOR = "to_tsvector('russian', coalesce(text, '')) || to_tsvector('english', coalesce(text, ''))";
+
+    private static final String TRIGGER_SEARCH_VECTOR =
+            "to_tsvector('russian', coalesce(NEW.text, '')) || to_tsvector('english', coalesce(NEW.text, ''))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MigrationLock migrationLock;
+    private final CompletedMigrationRepository completedMigrationRepository;
+    private final PostRepository postRepository;
+
+    @Value("${posts.search.backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public PostSearchMigration(JdbcTemplate jdbcTemplate, MigrationLock migrationLock,
+                               CompletedMigrationRepository completedMigrationRepository, PostRepository postRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.migrationLock = migrationLock;
+        this.completedMigrationRepository = completedMigrationRepository;
+        this.postRepository = postRepository;
+    }
+
+    @PostConstruct
+    public void createSearchStructures() {
+        migrationLock.runExclusively(NAME, () -> {
+            // Вычисляемую колонку (ранние версии миграции) БД поддерживает сама, триггер и дозаполнение не нужны
+            if (!isGeneratedColumn()) {
+                jdbcTemplate.execute("ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector");
+                createTrigger();
+                backfill();
+            }
+
+            // Каждая команда выполняется отдельно (вне транзакции, как требует CONCURRENTLY):
+            // ошибка создания расширения не должна мешать остальным
+            createIndexConcurrently("ix_posts_search_vector", "ON posts USING GIN (search_vector)");
+
+            try {
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                createIndexConcurrently("ix_posts_text_trgm", "ON posts USING GIN (LOWER(text) gin_trgm_ops)");
+            } catch (Exception e) {
+                log.warn("Не удалось создать триграммный индекс, поиск по подстроке будет последовательным: {}", e.getMessage());
+            }
+        });
+
+        log.debug("Структуры полнотекстового поиска по постам проверены");
+    }
+
+    private boolean isGeneratedColumn() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = 'posts'::regclass " +
+                        "AND attname = 'search_vector' AND attgenerated = 's')", Boolean.class));
+    }
+
+    private void createTrigger() {
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION posts_search_vector_update() RETURNS trigger AS $$ " +
+                "BEGIN NEW.search_vector := " + TRIGGER_SEARCH_VECTOR + "; RETURN NEW; END " +
+                "$$ LANGUAGE plpgsql");
+
+        boolean exists = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = 'posts'::regclass AND tgname = 'trg_posts_search_vector')",
+                Boolean.class));
+        if (!exists) {
+            jdbcTemplate.execute("CREATE TRIGGER trg_posts_search_vector BEFORE INSERT OR UPDATE OF text ON posts " +
+                    "FOR EACH ROW EXECUTE FUNCTION posts_search_vector_update()");
+        }
+    }
+
+    /// Дозаполнение постов, созданных до появления триггера. Каждая порция id - отдельный UPDATE в своей транзакции,
+    /// поэтому строки блокируются ненадолго. Завершение отмечается, чтобы не просматривать таблицу при каждом старте
+    private void backfill() {
+        if (completedMigrationRepository.existsById(NAME)) {
+            return;
+        }
+
+        int maxId = postRepository.findMaxId();
+        long total = 0;
+
+        for (int fromId = 0; fromId < maxId; fromId += batchSize) {
+            total += jdbcTemplate.update("UPDATE posts SET search_vector = " + SEARCH_VECTOR +
+                    " WHERE id > ? AND id <= ? AND search_vector IS NULL", fromId, fromId + batchSize);
+        }
+
+        completedMigrationRepository.markCompleted(NAME);
+        log.info("Заполнены векторы поиска для {} постов", total);
+    }
+
+    /// Индекс, оставшийся невалидным после прерванного CREATE INDEX CONCURRENTLY, пересоздается
+    private void createIndexConcurrently(String indexName, String definition) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)", Boolean.class, indexName);
+
+        if (!valid.isEmpty() && !valid.getFirst()) {
+            log.warn("Индекс {} невалиден (прерванное построение), пересоздание", indexName);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indexName);
+        }
+
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + indexName + " " + definition);
+    }
+}
@@ -4,12 +4,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import ru.nand.registryservice.entities.DTO.AnalyticsService.CreatedAccountsDTO;
 import ru.nand.registryservice.entities.DTO.NotificationDTO;
+import ru.nand.registryservice.entities.DTO.NotificationsService.PostCreatedEventDTO;
 import ru.nand.registryservice.entities.DTO.UserDTO;
 import ru.nand.registryservice.entities.User;
+import ru.nand.registryservice.services.OutboxService;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,16 +18,19 @@ import java.util.stream.Collectors;
 @Slf4j
 @Component
 public class RegistryUtil {
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private static final String NOTIFICATIONS_TOPIC = "user-notifications-topic";
+    private static final String POST_CREATED_TOPIC = "post-created-topic";
+
+    private final OutboxService outboxService;
     private final ObjectMapper objectMapper;
 
     @Autowired
-    public RegistryUtil(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
+    public RegistryUtil(OutboxService outboxService, ObjectMapper objectMapper) {
+        this.outboxService = outboxService;
         this.objectMapper = objectMapper;
     }
 
-    /// Отправка формирование уведомления и отправка в notifications-service посредством кафки
+    /// Формирование уведомления и запись в outbox (в notifications-service его отправит OutboxRelay посредством кафки)
     public void sendNotification(String targetUserEmail, String notificationMessage){
         NotificationDTO notificationDTO = NotificationDTO.builder()
                 .userEmail(targetUserEmail)
@@ -35,13 +39,25 @@ public class RegistryUtil {
 
         try{
             String message = objectMapper.writeValueAsString(notificationDTO);
-            kafkaTemplate.send("user-notifications-topic", message);
-            log.debug("Уведомление отправлено в notifications-service");
+            outboxService.enqueue(NOTIFICATIONS_TOPIC, null, message);
+            log.debug("Уведомление для notifications-service записано в outbox");
         } catch (JsonProcessingException e) {
             log.error("Ошибка при сериализации уведомления: {}", e.getMessage());
         }
     }
 
+    /// Событие о новом посте (одно на пост): уведомления подписчикам рассылает notifications-service
+    public void sendPostCreatedEvent(PostCreatedEventDTO postCreatedEventDTO){
+        try{
+            String message = objectMapper.writeValueAsString(postCreatedEventDTO);
+            outboxService.enqueue(POST_CREATED_TOPIC, String.valueOf(postCreatedEventDTO.getAuthorId()), message);
+            log.debug("Событие о создании поста {} записано в outbox", postCreatedEventDTO.getPostId());
+        } catch (JsonProcessingException e) {
+            log.error("Ошибка при сериализации события о создании поста: {}", e.getMessage());
+            throw new RuntimeException("Ошибка при сериализации события о создании поста: " + e.getMessage());
+        }
+    }
+
     /// Обогащение списка из UserDTO
     public String enrichUserDTOs(List<User> topUsers) throws JsonProcessingException {
         List<UserDTO> userDTOs = topUsers.stream()
@@ -49,9 +65,9 @@ public class RegistryUtil {
                         .id(user.getId())
                         .username(user.getUsername())
                         .email(user.getEmail())
-                        .subscribersCount(user.getSubscribers().size())
-                        .subscriptionsCount(user.getSubscriptions().size())
-                        .postsCount(user.getPosts().size())
+                        .subscribersCount(user.getSubscribersCount())
+                        .subscriptionsCount(user.getSubscriptionsCount())
+                        .postsCount(user.getPostsCount())
                         .build())
                 .collect(Collectors.toList());
 
@@ -0,0 +1,35 @@
+package ru.nand.registryservice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/// Курсор страницы полнотекстового поиска: позиция последнего поста в порядке (rank DESC, id DESC)
+public record SearchCursor(float rank, int id) {
+
+    /// Позиция "до самого релевантного поста" - первая страница
+    public static final SearchCursor FIRST = new SearchCursor(Float.MAX_VALUE, Integer.MAX_VALUE);
+
+    /// Разбор курсора из запроса, null или пустая строка - первая страница
+    public static SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new SearchCursor(
+                    Float.parseFloat(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1))
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    /// Непрозрачное для клиента представление курсора (Float.toString восстанавливается без потери точности)
+    public String encode() {
+        String value = rank + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
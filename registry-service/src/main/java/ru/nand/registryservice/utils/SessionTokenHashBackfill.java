@@ -0,0 +1,64 @@
+package ru.nand.registryservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.nand.registryservice.repositories.CompletedMigrationRepository;
+import ru.nand.registryservice.repositories.UserSessionRepository;
+
+/// Одноразовое заполнение access_token_hash / refresh_token_hash для сессий, созданных до появления этих колонок.
+/// Старые данные могут содержать одинаковые токены в нескольких сессиях: остается самая новая, остальные отзываются
+@Slf4j
+@Component
+public class SessionTokenHashBackfill {
+    private static final String NAME = "sessions-token-hash";
+
+    private final UserSessionRepository userSessionRepository;
+    private final CompletedMigrationRepository completedMigrationRepository;
+    private final MigrationLock migrationLock;
+
+    @Value("${sessions.token-hash.backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public SessionTokenHashBackfill(UserSessionRepository userSessionRepository,
+                                    CompletedMigrationRepository completedMigrationRepository,
+                                    MigrationLock migrationLock) {
+        this.userSessionRepository = userSessionRepository;
+        this.completedMigrationRepository = completedMigrationRepository;
+        this.migrationLock = migrationLock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTokenHashes() {
+        migrationLock.runExclusively(NAME, () -> {
+            // Поиск дубликатов просматривает всю таблицу, поэтому выполняется один раз
+            if (!completedMigrationRepository.existsById(NAME)) {
+                int duplicates = userSessionRepository.revokeOlderDuplicateAccessTokens()
+                        + userSessionRepository.revokeOlderDuplicateRefreshTokens();
+                if (duplicates > 0) {
+                    log.warn("Отозвано {} сессий с токенами, повторяющимися в более новых сессиях", duplicates);
+                }
+                completedMigrationRepository.markCompleted(NAME);
+            }
+
+            long total = 0;
+            int updated;
+
+            // Каждая порция в своей транзакции, чтобы не держать блокировки на всей таблице
+            do {
+                updated = userSessionRepository.backfillTokenHashes(batchSize);
+                total += updated;
+            } while (updated > 0);
+
+            if (total > 0) {
+                log.info("Заполнены хэши токенов для {} сессий", total);
+            } else {
+                log.debug("Сессий без хэшей токенов не найдено");
+            }
+        });
+    }
+}
@@ -2,23 +2,41 @@ package ru.nand.registryservice.utils;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import ru.nand.registryservice.services.SchedulerLeaseService;
 import ru.nand.registryservice.services.UserSessionService;
 
+import java.time.Duration;
+
 @Slf4j
 @Component
 public class SessionsUtil {
 
     private final UserSessionService userSessionService;
+    private final SchedulerLeaseService schedulerLeaseService;
+
+    /// Время аренды задачи одной репликой (меньше периода задач, больше времени их выполнения)
+    @Value("${sessions.sweep.clean.lease-seconds:86400}")
+    private long cleanLeaseSeconds;
+
+    @Value("${sessions.sweep.check-active.lease-seconds:7200}")
+    private long checkActiveLeaseSeconds;
 
     @Autowired
-    public SessionsUtil(UserSessionService userSessionService) {
+    public SessionsUtil(UserSessionService userSessionService, SchedulerLeaseService schedulerLeaseService) {
         this.userSessionService = userSessionService;
+        this.schedulerLeaseService = schedulerLeaseService;
     }
 
     @Scheduled(fixedRate = 24*60*60*1000) // 24 Часа
     public void cleanSessions() {
+        if (!schedulerLeaseService.tryAcquire("sessions-clean", Duration.ofSeconds(cleanLeaseSeconds))) {
+            log.debug("Очистку сессий выполняет другая реплика");
+            return;
+        }
+
         log.info("Запуск очистки INACTIVE и REVOKED сессий");
         userSessionService.handlingInactiveAndRevokedSessions();
         log.debug("Отчистка сессий завершена");
@@ -26,6 +44,11 @@ public class SessionsUtil {
 
     @Scheduled(fixedRate = 2 * 60 * 60 * 1000) // 2 Часа
     public void checkActiveSessions() {
+        if (!schedulerLeaseService.tryAcquire("sessions-check-active", Duration.ofSeconds(checkActiveLeaseSeconds))) {
+            log.debug("Проверку активных сессий выполняет другая реплика");
+            return;
+        }
+
         log.info("Запуск проверки активных сессий");
         userSessionService.handleInactiveSessions();
         log.debug("Проверка активных сессий завершена");
@@ -0,0 +1,47 @@
+package ru.nand.registryservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.nand.registryservice.repositories.CompletedMigrationRepository;
+import ru.nand.registryservice.services.TagIndexService;
+
+/// Построение индекса тэгов для постов, созданных до его появления (один раз, завершение отмечается в completed_migrations).
+/// Непустой словарь тэгов не означает, что индекс построен: новые посты индексируются сразу после старта,
+/// поэтому выполнение определяется отметкой, а построение идемпотентно (ON CONFLICT DO NOTHING) и не задваивает записи
+@Slf4j
+@Component
+public class TagIndexBackfill {
+    private static final String NAME = "tag-index";
+
+    private final CompletedMigrationRepository completedMigrationRepository;
+    private final TagIndexService tagIndexService;
+    private final MigrationLock migrationLock;
+
+    @Autowired
+    public TagIndexBackfill(CompletedMigrationRepository completedMigrationRepository, TagIndexService tagIndexService,
+                            MigrationLock migrationLock) {
+        this.completedMigrationRepository = completedMigrationRepository;
+        this.tagIndexService = tagIndexService;
+        this.migrationLock = migrationLock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (completedMigrationRepository.existsById(NAME)) {
+            return;
+        }
+
+        migrationLock.runExclusively(NAME, () -> {
+            if (completedMigrationRepository.existsById(NAME)) {
+                return; // Индекс построен другой репликой, пока ждали блокировку
+            }
+
+            log.info("Построение индекса тэгов по существующим постам");
+            tagIndexService.rebuild();
+            completedMigrationRepository.markCompleted(NAME);
+        });
+    }
+}
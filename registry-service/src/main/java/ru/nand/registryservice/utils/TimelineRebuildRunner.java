@@ -0,0 +1,33 @@
+package ru.nand.registryservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.nand.registryservice.services.TimelineService;
+
+/// Пересборка лент подписок для существующих пользователей: запуск с --timeline.rebuild=true
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "timeline.rebuild", havingValue = "true")
+public class TimelineRebuildRunner {
+
+    private final TimelineService timelineService;
+
+    @Autowired
+    public TimelineRebuildRunner(TimelineService timelineService) {
+        this.timelineService = timelineService;
+    }
+
+    // После переноса подписок и пересчета счетчиков - порог "знаменитости" считается по subscribers_count
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildTimelines() {
+        log.info("Запуск пересборки лент подписок");
+        timelineService.rebuildTimelines();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.nand.registryservice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/// Хэширование токенов сессий: в БД ищем по SHA-256 (64 hex символа), а не по полному тексту JWT
+public final class TokenHashUtil {
+
+    private TokenHashUtil() {
+    }
+
+    /// SHA-256 токена в hex (нижний регистр, совпадает с encode(sha256(...), 'hex') в Postgres)
+    public static String sha256Hex(String token) {
+        if (token == null) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
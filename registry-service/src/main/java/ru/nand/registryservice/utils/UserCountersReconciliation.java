@@ -0,0 +1,53 @@
+package ru.nand.registryservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.nand.registryservice.repositories.UserRepository;
+
+/// Пересчет денормализованных счетчиков пользователей (подписчики, подписки, посты) по фактическим данным (follows, posts).
+/// При старте заполняет счетчики для пользователей, созданных до появления колонок, затем исправляет расхождения
+@Slf4j
+@Component
+public class UserCountersReconciliation {
+
+    private final UserRepository userRepository;
+
+    @Value("${users.counters.reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public UserCountersReconciliation(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // После переноса подписок (FollowsMigration), до пересборки лент (TimelineRebuildRunner)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcileCounters();
+    }
+
+    @Scheduled(cron = "${users.counters.reconciliation.cron:0 30 3 * * *}")
+    public void reconcileCounters() {
+        int maxId = userRepository.findMaxId();
+        long total = 0;
+
+        // Каждая порция id в своей транзакции, чтобы не держать блокировки на всей таблице
+        for (int fromId = 0; fromId < maxId; fromId += batchSize) {
+            total += userRepository.reconcileCounters(fromId, fromId + batchSize);
+        }
+
+        if (total > 0) {
+            log.info("Исправлены счетчики для {} пользователей", total);
+        } else {
+            log.debug("Расхождений в счетчиках пользователей не найдено");
+        }
+    }
+}
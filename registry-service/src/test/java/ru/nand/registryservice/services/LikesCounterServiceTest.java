@@ -0,0 +1,135 @@
+package ru.nand.registryservice.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.nand.registryservice.repositories.PostRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/// Нагрузочная проверка буфера лайков: 1000 одновременных лайкающих при непрерывном сбросе буфера.
+/// PostRepository заменен моком, который пересчитывает likes_count по "таблице" post_likes в памяти
+class LikesCounterServiceTest {
+    private static final int LIKERS = 1000;
+    private static final int POSTS = 10;
+
+    private final Map<Integer, AtomicInteger> likeRows = new ConcurrentHashMap<>(); // post_likes по постам
+    private final Map<Integer, Integer> likesCount = new ConcurrentHashMap<>(); // posts.likes_count
+
+    private PostRepository postRepository;
+    private LikesCounterService likesCounterService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        when(postRepository.recomputeLikesCount(anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> postIds = invocation.getArgument(0);
+            postIds.forEach(postId -> likesCount.put(postId, likeRows.getOrDefault(postId, new AtomicInteger()).get()));
+            return postIds.size();
+        });
+
+        likesCounterService = new LikesCounterService(postRepository);
+        ReflectionTestUtils.setField(likesCounterService, "flushBatchSize", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentLikersConvergeToActualCount() throws Exception {
+        AtomicBoolean likersDone = new AtomicBoolean();
+        Thread flusher = Thread.ofPlatform().start(() -> {
+            while (!likersDone.get()) {
+                likesCounterService.flush();
+            }
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService likers = Executors.newFixedThreadPool(LIKERS)) {
+            for (int i = 0; i < LIKERS; i++) {
+                int postId = i % POSTS + 1;
+                boolean unlike = i % 4 == 0;
+
+                likers.submit(() -> {
+                    start.await();
+                    likeRows.computeIfAbsent(postId, id -> new AtomicInteger()).incrementAndGet();
+                    likesCounterService.increment(postId);
+
+                    if (unlike) {
+                        likeRows.get(postId).decrementAndGet();
+                        likesCounterService.decrement(postId);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        likersDone.set(true);
+        flusher.join();
+        likesCounterService.flush();
+
+        int total = 0;
+        for (int postId = 1; postId <= POSTS; postId++) {
+            assertThat(likesCount.get(postId)).isEqualTo(likeRows.get(postId).get());
+            total += likesCount.get(postId);
+        }
+        assertThat(total).isEqualTo(LIKERS - LIKERS / 4);
+    }
+
+    @Test
+    void likesOfOnePostAreFlushedWithSingleUpdate() {
+        for (int i = 0; i < LIKERS; i++) {
+            likeRows.computeIfAbsent(1, id -> new AtomicInteger()).incrementAndGet();
+            likesCounterService.increment(1);
+        }
+
+        likesCounterService.flush();
+        likesCounterService.flush();
+
+        verify(postRepository, times(1)).recomputeLikesCount(List.of(1));
+        assertThat(likesCount.get(1)).isEqualTo(LIKERS);
+    }
+
+    @Test
+    void rolledBackLikeIsNotFlushed() {
+        TransactionSynchronizationManager.initSynchronization();
+        likesCounterService.increment(1);
+        TransactionSynchronizationManager.clearSynchronization(); // откат: afterCommit не вызывается
+
+        likesCounterService.flush();
+
+        verify(postRepository, never()).recomputeLikesCount(anyCollection());
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        when(postRepository.recomputeLikesCount(anyCollection()))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenReturn(1);
+        likesCounterService.increment(1);
+
+        likesCounterService.flush();
+        likesCounterService.flush();
+
+        verify(postRepository, times(2)).recomputeLikesCount(List.of(1));
+    }
+}
@@ -0,0 +1,125 @@
+package ru.nand.registryservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.nand.registryservice.entities.DTO.PostsUserService.PostsPageDTO;
+import ru.nand.registryservice.entities.ENUMS.ROLE;
+import ru.nand.registryservice.entities.Post;
+import ru.nand.registryservice.entities.User;
+import ru.nand.registryservice.utils.RegistryUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/// Число JDBC запросов на страницу постов не зависит от размера страницы:
+/// строки страницы, тэги и имена файлов читаются тремя запросами (Hibernate statistics)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Import(PostService.class)
+class PostServiceQueryCountTest {
+    private static final int POSTS = 30;
+    private static final long QUERIES_PER_PAGE = 3;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockitoBean
+    private RegistryUtil registryUtil;
+    @MockitoBean
+    private ObjectMapper objectMapper;
+    @MockitoBean
+    private UserSessionService userSessionService;
+    @MockitoBean
+    private TimelineService timelineService;
+    @MockitoBean
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User author = entityManager.persist(User.builder()
+                .username("author")
+                .email("author@example.com")
+                .password("password")
+                .role(ROLE.ROLE_USER)
+                .isBlocked(false)
+                .registrationDate(LocalDateTime.now())
+                .build());
+
+        LocalDateTime publishedAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < POSTS; i++) {
+            entityManager.persist(Post.builder()
+                    .author(author)
+                    .text("Пост " + i)
+                    .dateOfPublication(publishedAt.plusMinutes(i))
+                    .dateOfUpdate(publishedAt.plusMinutes(i))
+                    .tags(Set.of("tag" + i, "common"))
+                    .filenames(new ArrayList<>(List.of("image" + i + "-1.jpg", "image" + i + "-2.jpg")))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageQueryCountDoesNotDependOnPageSize() {
+        for (int pageSize : List.of(1, 5, POSTS)) {
+            entityManager.clear();
+            statistics.clear();
+
+            PostsPageDTO page = postService.getAllPosts(null, pageSize);
+
+            assertThat(page.getPosts()).hasSize(pageSize);
+            assertThat(page.getPosts()).allSatisfy(post -> {
+                assertThat(post.getTags()).hasSize(2);
+                assertThat(post.getImagesUrls()).hasSize(2);
+            });
+            assertThat(statistics.getPrepareStatementCount())
+                    .as("запросов на страницу из %d постов", pageSize)
+                    .isEqualTo(QUERIES_PER_PAGE);
+        }
+    }
+
+    @Test
+    void nextPageCostsTheSameQueries() {
+        PostsPageDTO first = postService.getAllPosts(null, 10);
+
+        entityManager.clear();
+        statistics.clear();
+        PostsPageDTO second = postService.getAllPosts(first.getNextCursor(), 10);
+
+        assertThat(second.getPosts()).hasSize(10);
+        assertThat(second.getPosts().getFirst().getPostId()).isLessThan(first.getPosts().getLast().getPostId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(QUERIES_PER_PAGE);
+    }
+}